@@ -0,0 +1,140 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package cli;
+
+import generator.Analysis;
+import generator.AnalysisCache;
+import generator.BatchAnalyzer;
+import generator.Grammar;
+import generator.MemoryAnalysisCache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Headless entry point that analyzes all grammar files below a directory.
+ * The sets of every grammar are written to the standard output or to a
+ * file in the output directory as soon as the grammar is finished.
+ * The throughput of the batch is written to the standard error.
+ */
+public class Main {
+
+    private static final String USAGE =
+            "Usage: cli.Main <grammar directory> [--out <directory>] [--threads <n>] [--cache <directory>]";
+
+    private static final String SUFFIX = ".sets";
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path input = null;
+        Path output = null;
+        Path cacheDirectory = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out":
+                    output = Paths.get(Argument(args, ++i));
+                    break;
+
+                case "--threads":
+                    threads = Count(Argument(args, ++i));
+                    break;
+
+                case "--cache":
+                    cacheDirectory = Paths.get(Argument(args, ++i));
+                    break;
+
+                default:
+                    if (input != null || args[i].startsWith("--")) Exit("Unknown argument " + args[i]);
+                    input = Paths.get(args[i]);
+            }
+        }
+
+        if (input == null) Exit(USAGE);
+        if (!Files.isDirectory(input)) Exit("Not a directory: " + input);
+
+        Function<Grammar, Analysis> analyzer = Analysis::Of;
+
+        if (cacheDirectory != null) {
+            AnalysisCache diskCache = new AnalysisCache(cacheDirectory);
+
+            //Equal grammars of the batch are only loaded once
+            analyzer = new MemoryAnalysisCache(64L << 20, 16, grammar -> {
+                try {
+                    return diskCache.get(grammar);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })::get;
+        }
+
+        List<Path> files = BatchAnalyzer.GrammarFiles(input);
+        Path root = input;
+        Path target = output;
+        int[] writeFailures = new int[1];
+
+        BatchAnalyzer.Summary summary = new BatchAnalyzer(threads, analyzer).analyze(files, result -> {
+            if (result.Error != null) {
+                System.err.println(result.File + ": " + result.Error);
+                return;
+            }
+
+            //A cached analysis can belong to an equal grammar with another order
+            String sets = BatchAnalyzer.Format(result.Grammar, result.Analysis);
+
+            if (target == null) {
+                System.out.println("# " + result.File);
+                System.out.println(sets);
+            } else {
+                Path file = target.resolve(root.relativize(result.File) + SUFFIX);
+
+                try {
+                    Files.createDirectories(file.toAbsolutePath().getParent());
+                    Files.write(file, sets.getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    System.err.println(file + ": " + e);
+                    writeFailures[0]++;
+                }
+            }
+        });
+
+        System.err.println(summary);
+
+        if (writeFailures[0] > 0) {
+            System.err.println(writeFailures[0] + " result files could not be written");
+        }
+
+        if (summary.Failures > 0 || writeFailures[0] > 0) System.exit(1);
+    }
+
+    private static String Argument(String[] args, int index) {
+        if (index >= args.length) Exit(USAGE);
+        return args[index];
+    }
+
+    private static int Count(String text) {
+        try {
+            int count = Integer.parseInt(text);
+            if (count > 0) return count;
+        } catch (NumberFormatException e) {
+            //Handled like any other invalid count
+        }
+
+        Exit("The number of threads must be a positive integer: " + text + "\n" + USAGE);
+        return 0;
+    }
+
+    private static void Exit(String message) {
+        System.err.println(message);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,61 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The first, follow and predict sets of a grammar. The maps and the
+ * sets are unmodifiable, so an analysis can be cached and shared.
+ */
+public class Analysis {
+
+    /** The analyzed grammar */
+    public final Grammar Grammar;
+
+    /** First sets of all nonterminals */
+    public final Map<Symbol, SymbolSet> First;
+
+    /** Follow sets of all nonterminals */
+    public final Map<Symbol, SymbolSet> Follow;
+
+    /** Predict sets of all productions */
+    public final Map<Production, SymbolSet> Predict;
+
+    /**
+     * Create an analysis with precomputed sets. The sets are frozen.
+     * @param grammar The analyzed grammar
+     * @param firstSets First sets of all nonterminals
+     * @param followSets Follow sets of all nonterminals
+     * @param predictSets Predict sets of all productions
+     */
+    public Analysis(Grammar grammar, Map<Symbol, SymbolSet> firstSets, Map<Symbol, SymbolSet> followSets,
+                    Map<Production, SymbolSet> predictSets) {
+        this.Grammar = grammar;
+        this.First = Freeze(firstSets);
+        this.Follow = Freeze(followSets);
+        this.Predict = Freeze(predictSets);
+    }
+
+    /**
+     * Compute all sets of a grammar
+     * @param grammar The grammar to analyze
+     * @return The analysis with the sets of the SetGenerator
+     */
+    public static Analysis Of(Grammar grammar) {
+        Map<Symbol, SymbolSet> firstSets = SetGenerator.First(grammar);
+        Map<Symbol, SymbolSet> followSets = SetGenerator.Follow(grammar, firstSets);
+        Map<Production, SymbolSet> predictSets = SetGenerator.Predict(grammar, firstSets, followSets);
+
+        return new Analysis(grammar, firstSets, followSets, predictSets);
+    }
+
+    private static <K> Map<K, SymbolSet> Freeze(Map<K, SymbolSet> sets) {
+        sets.values().forEach(SymbolSet::freeze);
+        return Collections.unmodifiableMap(sets);
+    }
+}
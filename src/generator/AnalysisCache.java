@@ -0,0 +1,340 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static generator.Singletons.*;
+
+/**
+ * On-disk cache of the analysis of grammars. Every entry is a file that
+ * is named by the fingerprint of its grammar, so an unchanged grammar is
+ * never analyzed again, even when its productions are reordered. An entry
+ * stores its fingerprint and a checksum, entries that do not match are
+ * analyzed again and replaced. Entries are written to a temporary file
+ * and moved to their name, so readers never see a partial entry.
+ *
+ * The symbols of an entry are stored by kind and name and the predict
+ * sets in the canonical order of the productions. The sets of a loaded
+ * analysis contain the same symbols as the computed sets, but the order
+ * of the symbols is the order of the grammar that created the entry.
+ */
+public class AnalysisCache {
+
+    /** First bytes of every cache entry: "FFAC" */
+    public static final int MAGIC = 0x46464143;
+
+    /** Version of the written entries */
+    public static final int VERSION = 1;
+
+    private static final String SUFFIX = ".analysis";
+    private static final byte TERMINAL = 0;
+    private static final byte NONTERMINAL = 1;
+
+    private final Path directory;
+
+    /**
+     * Create a cache in a directory. The directory
+     * is created when the first entry is written.
+     * @param directory The directory of the entries
+     */
+    public AnalysisCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the analysis of a grammar. The cached entry is used when it
+     * is valid, otherwise the grammar is analyzed and the entry is written.
+     * The computed analysis is returned even when the entry can not be
+     * written, for example in a read-only or full directory.
+     * @param grammar The grammar to analyze
+     * @return The cached or computed analysis
+     * @throws IOException When an existing entry can not be read
+     */
+    public Analysis get(Grammar grammar) throws IOException {
+        Analysis analysis = load(grammar);
+
+        if (analysis == null) {
+            analysis = Analysis.Of(grammar);
+
+            try {
+                store(analysis);
+            } catch (IOException e) {
+                //The cache is only an optimization, the analysis is still valid
+            }
+        }
+
+        return analysis;
+    }
+
+    /**
+     * Load the cached analysis of a grammar
+     * @param grammar The grammar of the entry
+     * @return The analysis or null when there is no valid entry
+     * @throws IOException When the entry exists but can not be read
+     */
+    public Analysis load(Grammar grammar) throws IOException {
+        byte[] data;
+
+        try {
+            data = Files.readAllBytes(path(grammar));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+
+        try {
+            return Decode(grammar, data);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the entry of an analysis. An existing entry is replaced atomically.
+     * @param analysis The analysis to store
+     * @throws IOException When the entry can not be written
+     */
+    public void store(Analysis analysis) throws IOException {
+        Files.createDirectories(directory);
+        Path target = path(analysis.Grammar);
+        Path temporary = Files.createTempFile(directory, analysis.Grammar.fingerprint(), ".tmp");
+
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                out.write(Encode(analysis));
+            }
+
+            try {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Get the file of the entry of a grammar
+     * @param grammar The grammar of the entry
+     * @return Path of the entry in the cache directory
+     */
+    public Path path(Grammar grammar) {
+        return directory.resolve(grammar.fingerprint() + SUFFIX);
+    }
+
+    private static byte[] Encode(Analysis analysis) throws IOException {
+        Grammar grammar = analysis.Grammar;
+        Map<Symbol, Integer> table = SymbolIndices(grammar);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        WriteString(data, grammar.fingerprint());
+        data.writeInt(table.size());
+
+        for (Symbol sy : table.keySet()) {
+            data.writeByte((sy instanceof Nonterminal) ? NONTERMINAL : TERMINAL);
+            WriteString(data, sy.text);
+        }
+
+        WriteSets(data, table, analysis.First);
+        WriteSets(data, table, analysis.Follow);
+
+        Production[] productions = GrammarFingerprint.CanonicalOrder(grammar);
+        data.writeInt(productions.length);
+
+        for (Production p : productions) {
+            WriteSet(data, table, analysis.Predict.get(p));
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray());
+        data.writeInt((int)checksum.getValue());
+        data.flush();
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Number the symbols of a grammar. Only the symbols of the grammar are
+     * written, the symbol table may contain symbols of other grammars.
+     * @param grammar The grammar with the symbols
+     * @return The index of every symbol in the order of the entry
+     */
+    private static Map<Symbol, Integer> SymbolIndices(Grammar grammar) {
+        Map<Symbol, Integer> indices = new LinkedHashMap<>();
+        indices.put(ε, indices.size());
+        indices.put(Endmarker, indices.size());
+
+        for (Symbol sy : grammar.Nonterminals) {
+            indices.putIfAbsent(sy, indices.size());
+        }
+
+        for (Symbol sy : grammar.Terminals) {
+            indices.putIfAbsent(sy, indices.size());
+        }
+
+        return indices;
+    }
+
+    private static Analysis Decode(Grammar grammar, byte[] data) {
+        if (data.length < 4) {
+            throw new IllegalArgumentException("The entry is truncated");
+        }
+
+        CRC32 checksum = new CRC32();
+        checksum.update(data, 0, data.length - 4);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+
+        if (buffer.getInt(data.length - 4) != (int)checksum.getValue()) {
+            throw new IllegalArgumentException("The checksum of the entry is wrong");
+        }
+
+        buffer.limit(data.length - 4);
+
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("The entry has an unknown format");
+        }
+
+        if (!ReadString(buffer).equals(grammar.fingerprint())) {
+            throw new IllegalArgumentException("The entry belongs to another grammar");
+        }
+
+        //Map the symbols of the entry to the symbols of the grammar
+        Symbol[] symbols = new Symbol[CheckCount(buffer.getInt(), buffer)];
+
+        for (int i = 0; i < symbols.length; i++) {
+            byte kind = buffer.get();
+            String text = ReadString(buffer);
+            int ordinal = grammar.Symbols.ordinal((kind == NONTERMINAL) ? new Nonterminal(text) : new Terminal(text));
+
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("Unknown symbol " + text);
+            }
+
+            symbols[i] = grammar.Symbols.symbol(ordinal);
+        }
+
+        Map<Symbol, SymbolSet> firstSets = ReadSets(buffer, symbols);
+        Map<Symbol, SymbolSet> followSets = ReadSets(buffer, symbols);
+        Production[] productions = GrammarFingerprint.CanonicalOrder(grammar);
+
+        if (buffer.getInt() != productions.length) {
+            throw new IllegalArgumentException("The entry has a wrong number of productions");
+        }
+
+        Map<Production, SymbolSet> predictSets = new HashMap<>();
+
+        for (Production p : productions) {
+            predictSets.put(p, ReadSet(buffer, symbols));
+        }
+
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("The entry has trailing data");
+        }
+
+        return new Analysis(grammar, firstSets, followSets, predictSets);
+    }
+
+    private static void WriteSets(DataOutputStream data, Map<Symbol, Integer> table, Map<Symbol, SymbolSet> sets) throws IOException {
+        data.writeInt(sets.size());
+
+        for (Map.Entry<Symbol, SymbolSet> entry : sets.entrySet()) {
+            data.writeInt(Index(table, entry.getKey()));
+            WriteSet(data, table, entry.getValue());
+        }
+    }
+
+    private static void WriteSet(DataOutputStream data, Map<Symbol, Integer> table, SymbolSet set) throws IOException {
+        data.writeInt(set.size());
+
+        for (Symbol sy : set) {
+            data.writeInt(Index(table, sy));
+        }
+    }
+
+    private static int Index(Map<Symbol, Integer> table, Symbol sy) {
+        Integer index = table.get(sy);
+
+        if (index == null) {
+            throw new IllegalArgumentException("The symbol " + sy + " is not part of the grammar");
+        }
+
+        return index;
+    }
+
+    private static Map<Symbol, SymbolSet> ReadSets(ByteBuffer buffer, Symbol[] symbols) {
+        int count = CheckCount(buffer.getInt(), buffer);
+        Map<Symbol, SymbolSet> sets = new HashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            Symbol key = ReadSymbol(buffer, symbols);
+            sets.put(key, ReadSet(buffer, symbols));
+        }
+
+        return sets;
+    }
+
+    private static SymbolSet ReadSet(ByteBuffer buffer, Symbol[] symbols) {
+        int count = CheckCount(buffer.getInt(), buffer);
+        SymbolSet set = new SymbolSet();
+
+        for (int i = 0; i < count; i++) {
+            set.add(ReadSymbol(buffer, symbols));
+        }
+
+        return set;
+    }
+
+    private static Symbol ReadSymbol(ByteBuffer buffer, Symbol[] symbols) {
+        int index = buffer.getInt();
+
+        if (index < 0 || index >= symbols.length) {
+            throw new IllegalArgumentException("Unknown symbol index " + index);
+        }
+
+        return symbols[index];
+    }
+
+    private static void WriteString(DataOutputStream data, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static String ReadString(ByteBuffer buffer) {
+        int length = CheckCount(buffer.getInt(), buffer);
+        String text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return text;
+    }
+
+    private static int CheckCount(int count, ByteBuffer buffer) {
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid count " + count);
+        }
+
+        return count;
+    }
+}
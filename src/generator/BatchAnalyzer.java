@@ -0,0 +1,253 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Parse and analyze many grammar files concurrently. Every file is one
+ * task of a fixed thread pool. The results are handed to the consumer on
+ * the calling thread in the order the tasks finish, so a result can be
+ * written as soon as it is ready and the consumer needs no locking.
+ * A file that can not be read, parsed or analyzed is reported with its
+ * error and does not stop the other files.
+ */
+public class BatchAnalyzer {
+
+    private final int threads;
+    private final Function<Grammar, Analysis> analyzer;
+
+    /**
+     * Create a batch analyzer that computes the sets with the SetGenerator
+     * @param threads Number of files that are analyzed at the same time
+     */
+    public BatchAnalyzer(int threads) {
+        this(threads, Analysis::Of);
+    }
+
+    /**
+     * Create a batch analyzer with a custom analyzer, for example a cache
+     * @param threads Number of files that are analyzed at the same time
+     * @param analyzer Computes the analysis of a parsed grammar
+     */
+    public BatchAnalyzer(int threads, Function<Grammar, Analysis> analyzer) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be positive");
+        }
+
+        this.threads = threads;
+        this.analyzer = analyzer;
+    }
+
+    /**
+     * Find all regular files below a directory
+     * @param directory The root of the grammar files
+     * @return The files sorted by their path
+     * @throws IOException When the directory can not be read
+     */
+    public static List<Path> GrammarFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Analyze all files and pass every result to the consumer when it is finished
+     * @param files The grammar files with one production per line
+     * @param consumer Receives the results on the calling thread
+     * @return The throughput of the batch
+     * @throws InterruptedException When the calling thread is interrupted
+     */
+    public Summary analyze(List<Path> files, Consumer<Result> consumer) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, files.size())));
+        CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<Result>, Path> tasks = new HashMap<>();
+        long start = System.nanoTime();
+        int grammars = 0;
+        int failures = 0;
+        long productions = 0;
+
+        try {
+            for (Path file : files) {
+                tasks.put(completion.submit(() -> analyze(file)), file);
+            }
+
+            for (int i = 0; i < files.size(); i++) {
+                Result result = Await(completion, tasks);
+
+                if (result.Error == null) {
+                    grammars++;
+                    productions += result.Grammar.Productions.size();
+                } else {
+                    failures++;
+                }
+
+                consumer.accept(result);
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new Summary(grammars, failures, productions, System.nanoTime() - start);
+    }
+
+    private Result analyze(Path file) {
+        long start = System.nanoTime();
+
+        try {
+            Grammar grammar = GrammarParser.ParseGrammar(file);
+            Analysis analysis = analyzer.apply(grammar);
+            return new Result(file, grammar, analysis, null, System.nanoTime() - start);
+
+        } catch (Exception | StackOverflowError e) {
+            //A deeply nested grammar must not stop the other files
+            return new Result(file, null, null, e, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Wait for the next finished file. A task that failed with an error
+     * is reported as a failed file, so it does not stop the batch.
+     * @param completion The completion service of the tasks
+     * @param tasks The file of every unfinished task
+     * @return The result of the next finished file
+     * @throws InterruptedException When the calling thread is interrupted
+     */
+    private static Result Await(CompletionService<Result> completion, Map<Future<Result>, Path> tasks) throws InterruptedException {
+        Future<Result> task = completion.take();
+
+        //Drop the finished task, so its result can be collected after the consumer
+        Path file = tasks.remove(task);
+
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            return new Result(file, null, null, e.getCause(), 0);
+        }
+    }
+
+    /**
+     * Write the sets of an analysis in the same layout as the user interface.
+     * The analysis can belong to an equal grammar with another order, for
+     * example when it is cached, so the order of the given grammar is used.
+     * @param grammar The grammar in the order of its file
+     * @param analysis The analysis of the grammar or an equal grammar
+     * @return The first and follow sets of all nonterminals and the predict sets of all productions
+     */
+    public static String Format(Grammar grammar, Analysis analysis) {
+        StringBuilder sb = new StringBuilder();
+
+        for (Symbol n : grammar.Nonterminals) {
+            sb.append("FIRST(").append(n).append(") = ").append(analysis.First.get(n)).append('\n');
+        }
+
+        for (Symbol n : grammar.Nonterminals) {
+            sb.append("FOLLOW(").append(n).append(") = ").append(analysis.Follow.get(n)).append('\n');
+        }
+
+        for (Production p : grammar.Productions) {
+            sb.append("PREDICT(").append(p).append(") = ").append(analysis.Predict.get(p)).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Outcome of one grammar file
+     */
+    public static final class Result {
+
+        /** The analyzed file */
+        public final Path File;
+
+        /** The grammar parsed from the file or null when the file failed */
+        public final Grammar Grammar;
+
+        /** The analysis or null when the file failed */
+        public final Analysis Analysis;
+
+        /** The error of a failed file or null */
+        public final Throwable Error;
+
+        /** Time to parse and analyze the file */
+        public final long Nanos;
+
+        Result(Path file, Grammar grammar, Analysis analysis, Throwable error, long nanos) {
+            this.File = file;
+            this.Grammar = grammar;
+            this.Analysis = analysis;
+            this.Error = error;
+            this.Nanos = nanos;
+        }
+    }
+
+    /**
+     * Throughput of a finished batch
+     */
+    public static final class Summary {
+
+        /** Number of analyzed grammars */
+        public final int Grammars;
+
+        /** Number of files that could not be analyzed */
+        public final int Failures;
+
+        /** Number of productions of all analyzed grammars */
+        public final long Productions;
+
+        /** Wall clock time of the batch */
+        public final long Nanos;
+
+        Summary(int grammars, int failures, long productions, long nanos) {
+            this.Grammars = grammars;
+            this.Failures = failures;
+            this.Productions = productions;
+            this.Nanos = nanos;
+        }
+
+        /**
+         * Get the number of analyzed grammars per second
+         * @return Grammars per second of wall clock time
+         */
+        public double grammarsPerSecond() {
+            return Grammars / seconds();
+        }
+
+        /**
+         * Get the number of analyzed productions per second
+         * @return Productions per second of wall clock time
+         */
+        public double productionsPerSecond() {
+            return Productions / seconds();
+        }
+
+        private double seconds() {
+            return Math.max(Nanos, 1) / 1e9;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d grammars (%d failed), %d productions in %.3f s: %.1f grammars/s, %.1f productions/s",
+                    Grammars, Failures, Productions, seconds(), grammarsPerSecond(), productionsPerSecond());
+        }
+    }
+}
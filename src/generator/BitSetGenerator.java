@@ -0,0 +1,214 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Map;
+
+import static generator.SymbolIndex.*;
+
+/**
+ * Generation of the first, follow and predict sets with bitsets.
+ * All symbols are replaced by the dense ids of a symbol index and
+ * every set is stored as a long array. The sets are modified in
+ * place, so the fixpoint iteration will not create any garbage.
+ */
+public class BitSetGenerator {
+
+    /**
+     * Generate the first sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all nonterminals as keys and first sets as values
+     */
+    public static Map<Symbol, SymbolSet> First(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        return index.toSymbolSets(First(index));
+    }
+
+    /**
+     * Generate the follow sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all nonterminals as keys and follow sets as values
+     */
+    public static Map<Symbol, SymbolSet> Follow(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        return index.toSymbolSets(Follow(index, First(index)));
+    }
+
+    /**
+     * Generate the predict sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all productions as keys and predict sets as values
+     */
+    public static Map<Production, SymbolSet> Predict(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        long[][] firstSets = First(index);
+        return index.toProductionSets(Predict(index, firstSets, Follow(index, firstSets)));
+    }
+
+    /**
+     * Generate the first sets of all nonterminals
+     * @param index The indexed grammar for the generation
+     * @return Bitsets with terminal ids indexed by the nonterminal ids
+     */
+    public static long[][] First(SymbolIndex index) {
+        long[][] firstSets = new long[index.nonterminalCount()][];
+
+        //Initialize with empty sets
+        for (int n = 0; n < firstSets.length; n++) {
+            firstSets[n] = index.createTerminalSet();
+        }
+
+        boolean setChanged;
+
+        do {
+            setChanged = false;
+
+            for (int p = 0; p < index.productionCount(); p++) {
+                long[] set = firstSets[index.leftSide(p)];
+                boolean nullable = true;
+
+                for (int code : index.rightSide(p)) {
+
+                    if (code < 0) {
+                        setChanged |= BitSets.Add(set, ~code);
+                        nullable = false;
+                        break;
+
+                    } else {
+                        setChanged |= BitSets.UnionWithout(set, firstSets[code], εId);
+
+                        if (!BitSets.Contains(firstSets[code], εId)) {
+                            nullable = false;
+                            break;
+                        }
+                    }
+                }
+
+                if (nullable) {
+                    setChanged |= BitSets.Add(set, εId);
+                }
+            }
+
+        } while (setChanged);
+        return firstSets;
+    }
+
+    /**
+     * Generate the follow sets of all nonterminals
+     * with the precomputed first sets
+     * @param index The indexed grammar for the generation
+     * @param firstSets The precomputed first sets
+     * @return Bitsets with terminal ids indexed by the nonterminal ids
+     */
+    public static long[][] Follow(SymbolIndex index, long[][] firstSets) {
+        long[][] followSets = new long[index.nonterminalCount()][];
+
+        //Initialize with empty sets
+        for (int n = 0; n < followSets.length; n++) {
+            followSets[n] = index.createTerminalSet();
+        }
+
+        //Add the end-marker to the start symbol
+        BitSets.Add(followSets[index.startSymbol()], EndmarkerId);
+
+        boolean setChanged;
+
+        do {
+            setChanged = false;
+
+            for (int p = 0; p < index.productionCount(); p++) {
+                int[] rightSide = index.rightSide(p);
+
+                for (int i = 0; i < rightSide.length; i++) {
+                    if (rightSide[i] < 0) continue;
+
+                    long[] set = followSets[rightSide[i]];
+                    boolean nullable = true;
+
+                    //All symbols after the current nonterminal
+                    for (int j = i + 1; j < rightSide.length; j++) {
+                        int code = rightSide[j];
+
+                        if (code < 0) {
+                            setChanged |= BitSets.Add(set, ~code);
+                            nullable = false;
+                            break;
+
+                        } else {
+                            setChanged |= BitSets.UnionWithout(set, firstSets[code], εId);
+
+                            if (!BitSets.Contains(firstSets[code], εId)) {
+                                nullable = false;
+                                break;
+                            }
+                        }
+                    }
+
+                    if (nullable) {
+                        setChanged |= BitSets.Union(set, followSets[index.leftSide(p)]);
+                    }
+                }
+            }
+
+        } while (setChanged);
+        return followSets;
+    }
+
+    /**
+     * Generate the predict sets of all productions
+     * with the precomputed first and follow sets
+     * @param index The indexed grammar for the generation
+     * @param firstSets The precomputed first sets
+     * @param followSets The precomputed follow sets
+     * @return Bitsets with terminal ids indexed by the production ids
+     */
+    public static long[][] Predict(SymbolIndex index, long[][] firstSets, long[][] followSets) {
+        long[][] predictSets = new long[index.productionCount()][];
+
+        for (int p = 0; p < predictSets.length; p++) {
+            predictSets[p] = Predict(index, firstSets, followSets, p);
+        }
+
+        return predictSets;
+    }
+
+    /**
+     * Generate the predict set of a single production
+     * with the precomputed first and follow sets
+     * @param index The indexed grammar for the generation
+     * @param firstSets The precomputed first sets
+     * @param followSets The precomputed follow sets
+     * @param p Id of the production
+     * @return Bitset with the terminal ids of the predict set
+     */
+    static long[] Predict(SymbolIndex index, long[][] firstSets, long[][] followSets, int p) {
+        long[] set = index.createTerminalSet();
+        boolean nullable = true;
+
+        for (int code : index.rightSide(p)) {
+
+            if (code < 0) {
+                BitSets.Add(set, ~code);
+                nullable = false;
+                break;
+
+            } else {
+                BitSets.UnionWithout(set, firstSets[code], εId);
+
+                if (!BitSets.Contains(firstSets[code], εId)) {
+                    nullable = false;
+                    break;
+                }
+            }
+        }
+
+        if (nullable) {
+            BitSets.Union(set, followSets[index.leftSide(p)]);
+        }
+
+        return set;
+    }
+}
@@ -0,0 +1,152 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+/**
+ * Contains all operations for sets that are stored as bitsets.
+ * A bitset is a long array where the bit i is set when the
+ * element with the id i is in the set. All binary operations
+ * are applied in place and work on one long word at a time.
+ */
+public final class BitSets {
+
+    /**
+     * Create a new empty bitset
+     * @param size Number of elements that can be stored in the set
+     * @return The new bitset with all bits cleared
+     */
+    public static long[] Create(int size) {
+        return new long[(size + 63) >>> 6];
+    }
+
+    /**
+     * Check if an element is in the set
+     * @param set The bitset to check
+     * @param id Id of the element
+     * @return True when the bit of the element is set
+     */
+    public static boolean Contains(long[] set, int id) {
+        return (set[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Add an element to the set
+     * @param set Add the element to this bitset
+     * @param id Id of the element
+     * @return True when the set has changed
+     */
+    public static boolean Add(long[] set, int id) {
+        long word = set[id >>> 6];
+        long added = word | (1L << id);
+        set[id >>> 6] = added;
+        return added != word;
+    }
+
+    /**
+     * Remove an element from the set
+     * @param set Remove the element from this bitset
+     * @param id Id of the element
+     */
+    public static void Remove(long[] set, int id) {
+        set[id >>> 6] &= ~(1L << id);
+    }
+
+    /**
+     * Add all elements of source to target
+     * @param target This set will be modified
+     * @param source Add the elements of this set
+     * @return True when the target set has changed
+     */
+    public static boolean Union(long[] target, long[] source) {
+        boolean changed = false;
+
+        for (int i = 0; i < source.length; i++) {
+            long word = target[i];
+            long union = word | source[i];
+
+            if (union != word) {
+                target[i] = union;
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Add all elements of source to target except one element
+     * @param target This set will be modified
+     * @param source Add the elements of this set
+     * @param excludedId This element of source will not be added
+     * @return True when the target set has changed
+     */
+    public static boolean UnionWithout(long[] target, long[] source, int excludedId) {
+        boolean changed = false;
+        int excludedWord = excludedId >>> 6;
+
+        for (int i = 0; i < source.length; i++) {
+            long word = target[i];
+            long sourceWord = (i == excludedWord) ? source[i] & ~(1L << excludedId) : source[i];
+            long union = word | sourceWord;
+
+            if (union != word) {
+                target[i] = union;
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Remove all elements of source from target
+     * @param target This set will be modified
+     * @param source Remove the elements of this set
+     */
+    public static void Difference(long[] target, long[] source) {
+        for (int i = 0; i < source.length; i++) {
+            target[i] &= ~source[i];
+        }
+    }
+
+    /**
+     * Check if the set contains no elements
+     * @param set The bitset to check
+     * @return True when no bit is set
+     */
+    public static boolean IsEmpty(long[] set) {
+        for (long word : set) {
+            if (word != 0) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the smallest id of the set that is greater or equal to fromId
+     * @param set The bitset to search
+     * @param fromId Start the search with this id
+     * @return Id of the next element or -1 when there is no such element
+     */
+    public static int NextId(long[] set, int fromId) {
+        int wordIndex = fromId >>> 6;
+        if (wordIndex >= set.length) return -1;
+
+        long word = set[wordIndex] & (-1L << fromId);
+
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+
+            if (++wordIndex == set.length) {
+                return -1;
+            }
+
+            word = set[wordIndex];
+        }
+    }
+}
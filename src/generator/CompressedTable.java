@@ -0,0 +1,287 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parse table compressed with row displacement (comb vector). The entries
+ * of all rows are stored in one value vector: every row gets a base offset,
+ * so that its entries fall into free slots, and a check vector stores the
+ * row of every slot. A row can have a default entry, which is returned for
+ * all columns without an entry. With default entries the empty cells of a
+ * row are not detected anymore: for a LL(1) table the parser will expand
+ * the default production and find the error with the next terminal, for a
+ * LR table the default reduce will find the error before the next shift.
+ * A lookup needs at most four array loads and no search.
+ */
+public class CompressedTable {
+
+    private final int rowCount;
+    private final int columnCount;
+    private final int emptyValue;
+    private final int[] bases;
+    private final int[] defaults;
+    private final int[] check;
+    private final int[] values;
+
+    /**
+     * Compress a dense table
+     * @param table The dense table with the same number of columns in every row
+     * @param emptyValue Value of the cells without an entry
+     * @param defaults Default entry of every row or the empty value
+     */
+    public CompressedTable(int[][] table, int emptyValue, int[] defaults) {
+        if (defaults.length != table.length) {
+            throw new IllegalArgumentException("Every row needs a default entry");
+        }
+
+        this.rowCount = table.length;
+        this.columnCount = (table.length > 0) ? table[0].length : 0;
+        this.emptyValue = emptyValue;
+        this.defaults = defaults.clone();
+        this.bases = new int[rowCount];
+
+        //Columns of the entries that are not covered by the default
+        int[][] columns = new int[rowCount][];
+        Integer[] order = new Integer[rowCount];
+
+        for (int row = 0; row < rowCount; row++) {
+            if (table[row].length != columnCount) {
+                throw new IllegalArgumentException("All rows must have the same length");
+            }
+
+            int count = 0;
+            int[] rowColumns = new int[columnCount];
+
+            for (int column = 0; column < columnCount; column++) {
+                int value = table[row][column];
+
+                if (value != emptyValue && value != defaults[row]) {
+                    rowColumns[count++] = column;
+                }
+            }
+
+            columns[row] = Arrays.copyOf(rowColumns, count);
+            order[row] = row;
+        }
+
+        //Place the rows with the most entries first
+        Arrays.sort(order, (a, b) -> columns[b].length - columns[a].length);
+
+        int[] slots = new int[Math.max(16, columnCount * 2)];
+        Arrays.fill(slots, -1);
+        int firstFree = 0;
+        int length = 0;
+
+        for (int row : order) {
+            int[] rowColumns = columns[row];
+
+            if (rowColumns.length == 0) {
+                continue;
+            }
+
+            //Find the first base where all entries of the row fit, the base
+            //is negative when the first entry is right of the first free slot
+            int base = firstFree - rowColumns[0];
+
+            while (!Fits(slots, rowColumns, base)) {
+                base++;
+            }
+
+            int end = base + rowColumns[rowColumns.length - 1] + 1;
+
+            if (end > slots.length) {
+                int oldLength = slots.length;
+                slots = Arrays.copyOf(slots, Math.max(end, oldLength * 2));
+                Arrays.fill(slots, oldLength, slots.length, -1);
+            }
+
+            for (int column : rowColumns) {
+                slots[base + column] = row;
+            }
+
+            bases[row] = base;
+            length = Math.max(length, end);
+
+            while (firstFree < slots.length && slots[firstFree] >= 0) {
+                firstFree++;
+            }
+        }
+
+        check = new int[length];
+        values = new int[length];
+        Arrays.fill(check, -1);
+
+        for (int row = 0; row < rowCount; row++) {
+            for (int column : columns[row]) {
+                check[bases[row] + column] = row;
+                values[bases[row] + column] = table[row][column];
+            }
+        }
+    }
+
+    /**
+     * Get the value of a cell
+     * @param row Row of the cell
+     * @param column Column of the cell
+     * @return The stored entry, the default entry of the row or the empty value
+     */
+    public int get(int row, int column) {
+        int slot = bases[row] + column;
+
+        if (slot >= 0 && slot < check.length && check[slot] == row) {
+            return values[slot];
+        }
+
+        return defaults[row];
+    }
+
+    /**
+     * Get the number of rows
+     * @return Number of rows of the dense table
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Get the number of columns
+     * @return Number of columns of the dense table
+     */
+    public int columnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Get the value of the cells without an entry
+     * @return The empty value of the dense table
+     */
+    public int emptyValue() {
+        return emptyValue;
+    }
+
+    /**
+     * Get the length of the value and check vectors
+     * @return Number of slots of the comb vector
+     */
+    public int slotCount() {
+        return values.length;
+    }
+
+    /**
+     * Get the number of ints that are stored for the table
+     * @return Size of all arrays of the compressed table
+     */
+    public int size() {
+        return bases.length + defaults.length + check.length + values.length;
+    }
+
+    /**
+     * Compress the table of a LL(1) parser
+     * @param table The parse table
+     * @param defaultProductions Use the most frequent production of every row as default
+     * @return The compressed table with the production ids
+     */
+    public static CompressedTable Of(LL1Table table, boolean defaultProductions) {
+        SymbolIndex index = table.Index;
+        int[][] rows = new int[index.nonterminalCount()][];
+        int[] defaults = new int[rows.length];
+
+        for (int n = 0; n < rows.length; n++) {
+            rows[n] = table.row(n);
+            defaults[n] = defaultProductions ? MostFrequent(rows[n], LL1Table.ERROR) : LL1Table.ERROR;
+        }
+
+        return new CompressedTable(rows, LL1Table.ERROR, defaults);
+    }
+
+    /**
+     * Compress the action table of a LR parser
+     * @param table The action and goto table
+     * @param defaultReductions Use the most frequent reduce of every state as default
+     * @return The compressed action table
+     */
+    public static CompressedTable Of(LRTable table, boolean defaultReductions) {
+        int terminalCount = table.Automaton.Index.terminalCount();
+        int[][] rows = new int[table.stateCount()][terminalCount];
+        int[] defaults = new int[rows.length];
+
+        for (int state = 0; state < rows.length; state++) {
+            int[] reductions = new int[terminalCount];
+            Arrays.fill(reductions, LRTable.ERROR);
+
+            for (int t = 0; t < terminalCount; t++) {
+                rows[state][t] = table.action(state, t);
+
+                if (LRTable.IsReduce(rows[state][t])) {
+                    reductions[t] = rows[state][t];
+                }
+            }
+
+            //Shifts and accept are never replaced by a default
+            defaults[state] = defaultReductions ? MostFrequent(reductions, LRTable.ERROR) : LRTable.ERROR;
+        }
+
+        return new CompressedTable(rows, LRTable.ERROR, defaults);
+    }
+
+    /**
+     * Compress the goto table of a LR parser. The goto table is only
+     * used after a reduce, so the missing entries are never read.
+     * @param table The action and goto table
+     * @return The compressed goto table with -1 as empty value
+     */
+    public static CompressedTable Gotos(LRTable table) {
+        int nonterminalCount = table.Automaton.Index.nonterminalCount();
+        int[][] rows = new int[table.stateCount()][nonterminalCount];
+
+        for (int state = 0; state < rows.length; state++) {
+            for (int n = 0; n < nonterminalCount; n++) {
+                rows[state][n] = table.goTo(state, n);
+            }
+        }
+
+        int[] defaults = new int[rows.length];
+        Arrays.fill(defaults, -1);
+        return new CompressedTable(rows, -1, defaults);
+    }
+
+    /**
+     * Find the most frequent value of a row
+     * @param row The values of the row
+     * @param emptyValue This value is never returned unless the row is empty
+     * @return The most frequent value or the empty value
+     */
+    public static int MostFrequent(int[] row, int emptyValue) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        int result = emptyValue;
+        int maxCount = 0;
+
+        for (int value : row) {
+            if (value == emptyValue) continue;
+            int count = counts.merge(value, 1, Integer::sum);
+
+            if (count > maxCount) {
+                maxCount = count;
+                result = value;
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean Fits(int[] slots, int[] columns, int base) {
+        for (int column : columns) {
+            int slot = base + column;
+            if (slot < slots.length && slots[slot] >= 0) return false;
+        }
+
+        return true;
+    }
+}
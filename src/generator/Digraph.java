@@ -0,0 +1,357 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Arrays;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Contains the graph algorithms for relations over dense ids.
+ * A relation is stored as an adjacency array, where relation[x]
+ * contains all y with x R y. The algorithms are iterative, so
+ * deep relations will not overflow the call stack.
+ */
+public final class Digraph {
+
+    /**
+     * Find the strongly connected components of a relation with Tarjan's algorithm.
+     * The components are numbered in reverse topological order: for every x R y
+     * the component of y is less or equal to the component of x.
+     * @param relation Adjacency array of the relation
+     * @return Component number of every node
+     */
+    public static int[] Components(int[][] relation) {
+        int nodeCount = relation.length;
+        int[] order = new int[nodeCount];
+        int[] lowLink = new int[nodeCount];
+        int[] components = new int[nodeCount];
+
+        int[] stack = new int[nodeCount];
+        int[] callNodes = new int[nodeCount];
+        int[] callEdges = new int[nodeCount];
+        int stackSize = 0;
+        int callSize = 0;
+        int counter = 0;
+        int componentCount = 0;
+
+        for (int x = 0; x < nodeCount; x++) {
+            components[x] = -1;
+        }
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (order[root] != 0) continue;
+
+            order[root] = lowLink[root] = ++counter;
+            stack[stackSize++] = root;
+            callNodes[callSize] = root;
+            callEdges[callSize++] = 0;
+
+            while (callSize > 0) {
+                int x = callNodes[callSize - 1];
+                int edge = callEdges[callSize - 1];
+
+                if (edge < relation[x].length) {
+                    callEdges[callSize - 1]++;
+                    int y = relation[x][edge];
+
+                    if (order[y] == 0) {
+                        //Visit the successor before continuing with x
+                        order[y] = lowLink[y] = ++counter;
+                        stack[stackSize++] = y;
+                        callNodes[callSize] = y;
+                        callEdges[callSize++] = 0;
+
+                    } else if (components[y] < 0) {
+                        lowLink[x] = Math.min(lowLink[x], order[y]);
+                    }
+
+                } else {
+                    callSize--;
+
+                    if (callSize > 0) {
+                        int parent = callNodes[callSize - 1];
+                        lowLink[parent] = Math.min(lowLink[parent], lowLink[x]);
+                    }
+
+                    //x is the root of a component
+                    if (lowLink[x] == order[x]) {
+                        int member;
+
+                        do {
+                            member = stack[--stackSize];
+                            components[member] = componentCount;
+                        } while (member != x);
+
+                        componentCount++;
+                    }
+                }
+            }
+        }
+
+        return components;
+    }
+
+    /**
+     * Get the number of components
+     * @param components Component number of every node
+     * @return Number of different components
+     */
+    public static int ComponentCount(int[] components) {
+        int count = 0;
+
+        for (int c : components) {
+            count = Math.max(count, c + 1);
+        }
+
+        return count;
+    }
+
+    /**
+     * Get the members of all components
+     * @param components Component number of every node
+     * @return Nodes of every component in ascending order
+     */
+    public static int[][] Members(int[] components) {
+        int[][] members = new int[ComponentCount(components)][];
+        int[] sizes = new int[members.length];
+
+        for (int c : components) {
+            sizes[c]++;
+        }
+
+        for (int c = 0; c < members.length; c++) {
+            members[c] = new int[sizes[c]];
+            sizes[c] = 0;
+        }
+
+        for (int x = 0; x < components.length; x++) {
+            int c = components[x];
+            members[c][sizes[c]++] = x;
+        }
+
+        return members;
+    }
+
+    /**
+     * Compute the union of the sets along a relation. After the traversal
+     * every set F(x) is the union of the initial set F'(x) and all initial
+     * sets F'(y) with x R* y. Every strongly connected component is
+     * processed exactly once, all of its members get the same result set.
+     * @param relation Adjacency array of the relation
+     * @param sets The initial bitsets which are replaced by the result sets
+     */
+    public static void Traverse(int[][] relation, long[][] sets) {
+        int[] components = Components(relation);
+        int[][] members = Members(components);
+
+        //Components are numbered in reverse topological order
+        for (int c = 0; c < members.length; c++) {
+            Solve(relation, sets, components, members[c], c);
+        }
+    }
+
+    /**
+     * Compute the result set of a component. The result sets
+     * of all components it depends on must be computed before.
+     * @param relation Adjacency array of the relation
+     * @param sets The bitsets of all nodes
+     * @param components Component number of every node
+     * @param members Nodes of the component
+     * @param c Number of the component
+     */
+    private static void Solve(int[][] relation, long[][] sets, int[] components, int[] members, int c) {
+        long[] set = sets[members[0]];
+
+        for (int x : members) {
+            BitSets.Union(set, sets[x]);
+
+            for (int y : relation[x]) {
+                if (components[y] != c) {
+                    BitSets.Union(set, sets[y]);
+                }
+            }
+        }
+
+        for (int x : members) {
+            if (sets[x] != set) {
+                System.arraycopy(set, 0, sets[x], 0, set.length);
+            }
+        }
+    }
+
+    /**
+     * Compute the union of the sets along a relation in parallel. Every
+     * strongly connected component is solved by its own task, which is
+     * started as soon as all components it depends on are solved.
+     * The result is the same as the result of the sequential traversal.
+     * @param relation Adjacency array of the relation
+     * @param sets The initial bitsets which are replaced by the result sets
+     * @param pool The tasks of the components are executed by this pool
+     */
+    public static void Traverse(int[][] relation, long[][] sets, ForkJoinPool pool) {
+        int[] components = Components(relation);
+        int[][] members = Members(components);
+
+        //Find the dependencies between the components
+        RelationBuilder dependentBuilder = new RelationBuilder(members.length);
+        int[] dependencyCounts = new int[members.length];
+        int[] lastDependent = new int[members.length];
+        Arrays.fill(lastDependent, -1);
+
+        for (int c = 0; c < members.length; c++) {
+            for (int x : members[c]) {
+                for (int y : relation[x]) {
+                    int d = components[y];
+
+                    if (d != c && lastDependent[d] != c) {
+                        lastDependent[d] = c;
+                        dependentBuilder.add(d, c);
+                        dependencyCounts[c]++;
+                    }
+                }
+            }
+        }
+
+        ComponentSolver solver = new ComponentSolver(relation, sets, components, members,
+                dependentBuilder.build(), new AtomicIntegerArray(dependencyCounts));
+        pool.invoke(solver);
+    }
+
+    /**
+     * Root task of the parallel traversal. The root task starts the
+     * components without dependencies and completes when all
+     * component tasks are completed.
+     */
+    private static class ComponentSolver extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] relation;
+        private final long[][] sets;
+        private final int[] components;
+        private final int[][] members;
+        private final int[][] dependents;
+        private final AtomicIntegerArray dependencyCounts;
+
+        ComponentSolver(int[][] relation, long[][] sets, int[] components, int[][] members,
+                        int[][] dependents, AtomicIntegerArray dependencyCounts) {
+            this.relation = relation;
+            this.sets = sets;
+            this.components = components;
+            this.members = members;
+            this.dependents = dependents;
+            this.dependencyCounts = dependencyCounts;
+        }
+
+        @Override
+        public void compute() {
+            for (int c = 0; c < members.length; c++) {
+                if (dependencyCounts.get(c) == 0) {
+                    addToPendingCount(1);
+                    new ComponentTask(this, c).fork();
+                }
+            }
+
+            tryComplete();
+        }
+
+        void solve(int c) {
+            Solve(relation, sets, components, members[c], c);
+        }
+    }
+
+    /**
+     * Task that solves one component and starts all dependent components
+     * that have no more unsolved dependencies. The first ready dependent
+     * is solved by the same task to avoid the overhead of small tasks.
+     */
+    private static class ComponentTask extends CountedCompleter<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final ComponentSolver solver;
+        private final int component;
+
+        ComponentTask(ComponentSolver solver, int component) {
+            super(solver);
+            this.solver = solver;
+            this.component = component;
+        }
+
+        @Override
+        public void compute() {
+            int c = component;
+
+            while (c >= 0) {
+                solver.solve(c);
+                int next = -1;
+
+                for (int d : solver.dependents[c]) {
+                    if (solver.dependencyCounts.decrementAndGet(d) == 0) {
+                        if (next < 0) {
+                            next = d;
+                        } else {
+                            solver.addToPendingCount(1);
+                            new ComponentTask(solver, d).fork();
+                        }
+                    }
+                }
+
+                c = next;
+            }
+
+            tryComplete();
+        }
+    }
+
+    /**
+     * Collects the edges of a relation over dense ids
+     * and creates the adjacency array of the relation.
+     */
+    public static class RelationBuilder {
+        private final int[][] edges;
+        private final int[] edgeCounts;
+
+        /**
+         * Create a new relation without edges
+         * @param nodeCount Number of nodes of the relation
+         */
+        public RelationBuilder(int nodeCount) {
+            edges = new int[nodeCount][];
+            edgeCounts = new int[nodeCount];
+        }
+
+        /**
+         * Add the edge x R y to the relation
+         * @param x Start node of the edge
+         * @param y End node of the edge
+         */
+        public void add(int x, int y) {
+            if (edges[x] == null) {
+                edges[x] = new int[2];
+
+            } else if (edgeCounts[x] == edges[x].length) {
+                edges[x] = Arrays.copyOf(edges[x], edgeCounts[x] * 2);
+            }
+
+            edges[x][edgeCounts[x]++] = y;
+        }
+
+        /**
+         * Create the adjacency array of the relation
+         * @return Adjacency array with all added edges
+         */
+        public int[][] build() {
+            int[][] relation = new int[edges.length][];
+
+            for (int x = 0; x < edges.length; x++) {
+                relation[x] = (edges[x] == null) ? new int[0] : Arrays.copyOf(edges[x], edgeCounts[x]);
+            }
+
+            return relation;
+        }
+    }
+}
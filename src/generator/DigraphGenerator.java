@@ -0,0 +1,192 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Map;
+
+import static generator.SymbolIndex.*;
+
+/**
+ * Generation of the first and follow sets with the digraph algorithm
+ * of DeRemer and Pennello. The sets are described as relations over the
+ * nonterminals: X includes the first set of Y when X -> αYβ with a
+ * nullable α and X includes the follow set of Y when Y -> αXβ with
+ * a nullable β. Each strongly connected component of a relation
+ * is visited once, so there is no iteration until the sets are stable.
+ */
+public class DigraphGenerator {
+
+    /**
+     * Generate the first sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all nonterminals as keys and first sets as values
+     */
+    public static Map<Symbol, SymbolSet> First(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        return index.toSymbolSets(First(index));
+    }
+
+    /**
+     * Generate the follow sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all nonterminals as keys and follow sets as values
+     */
+    public static Map<Symbol, SymbolSet> Follow(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        return index.toSymbolSets(Follow(index, First(index)));
+    }
+
+    /**
+     * Generate the predict sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all productions as keys and predict sets as values
+     */
+    public static Map<Production, SymbolSet> Predict(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        long[][] firstSets = First(index);
+        return index.toProductionSets(BitSetGenerator.Predict(index, firstSets, Follow(index, firstSets)));
+    }
+
+    /**
+     * Generate the first sets of all nonterminals
+     * @param index The indexed grammar for the generation
+     * @return Bitsets with terminal ids indexed by the nonterminal ids
+     */
+    public static long[][] First(SymbolIndex index) {
+        boolean[] nullable = Nullable(index);
+        long[][] firstSets = new long[index.nonterminalCount()][];
+
+        for (int n = 0; n < firstSets.length; n++) {
+            firstSets[n] = index.createTerminalSet();
+        }
+
+        Digraph.Traverse(FirstRelation(index, nullable, firstSets), firstSets);
+
+        //The empty word is not passed along the relation
+        for (int n = 0; n < firstSets.length; n++) {
+            if (nullable[n]) {
+                BitSets.Add(firstSets[n], εId);
+            }
+        }
+
+        return firstSets;
+    }
+
+    /**
+     * Generate the follow sets of all nonterminals
+     * with the precomputed first sets
+     * @param index The indexed grammar for the generation
+     * @param firstSets The precomputed first sets
+     * @return Bitsets with terminal ids indexed by the nonterminal ids
+     */
+    public static long[][] Follow(SymbolIndex index, long[][] firstSets) {
+        long[][] followSets = new long[index.nonterminalCount()][];
+
+        for (int n = 0; n < followSets.length; n++) {
+            followSets[n] = index.createTerminalSet();
+        }
+
+        Digraph.Traverse(FollowRelation(index, firstSets, followSets), followSets);
+        return followSets;
+    }
+
+    /**
+     * Create the first relation and the initial first sets. The initial
+     * sets contain the terminals that directly follow a nullable prefix.
+     * @param index The indexed grammar
+     * @param nullable The nullable nonterminals
+     * @param firstSets Empty sets which are filled with the initial sets
+     * @return Relation with X R Y when X -> αYβ and α is nullable
+     */
+    static int[][] FirstRelation(SymbolIndex index, boolean[] nullable, long[][] firstSets) {
+        Digraph.RelationBuilder relation = new Digraph.RelationBuilder(index.nonterminalCount());
+
+        for (int p = 0; p < index.productionCount(); p++) {
+            int leftSide = index.leftSide(p);
+
+            for (int code : index.rightSide(p)) {
+
+                if (code < 0) {
+                    BitSets.Add(firstSets[leftSide], ~code);
+                    break;
+
+                } else {
+                    relation.add(leftSide, code);
+                    if (!nullable[code]) break;
+                }
+            }
+        }
+
+        return relation.build();
+    }
+
+    /**
+     * Create the follow relation and the initial follow sets. The initial
+     * sets contain the first sets of the symbols after each occurrence.
+     * @param index The indexed grammar
+     * @param firstSets The precomputed first sets
+     * @param followSets Empty sets which are filled with the initial sets
+     * @return Relation with X R Y when Y -> αXβ and β is nullable
+     */
+    static int[][] FollowRelation(SymbolIndex index, long[][] firstSets, long[][] followSets) {
+        Digraph.RelationBuilder relation = new Digraph.RelationBuilder(index.nonterminalCount());
+
+        //Add the end-marker to the start symbol
+        BitSets.Add(followSets[index.startSymbol()], EndmarkerId);
+
+        for (int p = 0; p < index.productionCount(); p++) {
+            int[] rightSide = index.rightSide(p);
+
+            for (int i = 0; i < rightSide.length; i++) {
+                if (rightSide[i] < 0) continue;
+
+                long[] set = followSets[rightSide[i]];
+                boolean nullable = true;
+
+                //All symbols after the current nonterminal
+                for (int j = i + 1; j < rightSide.length; j++) {
+                    int code = rightSide[j];
+
+                    if (code < 0) {
+                        BitSets.Add(set, ~code);
+                        nullable = false;
+                        break;
+
+                    } else {
+                        BitSets.UnionWithout(set, firstSets[code], εId);
+
+                        if (!BitSets.Contains(firstSets[code], εId)) {
+                            nullable = false;
+                            break;
+                        }
+                    }
+                }
+
+                if (nullable) {
+                    relation.add(rightSide[i], index.leftSide(p));
+                }
+            }
+        }
+
+        return relation.build();
+    }
+
+    /**
+     * Get the nullable nonterminals of the indexed grammar
+     * @param index The indexed grammar
+     * @return True for every nullable nonterminal id
+     */
+    static boolean[] Nullable(SymbolIndex index) {
+        NullableSet nullableSet = index.Grammar.nullable();
+        boolean[] nullable = new boolean[index.nonterminalCount()];
+
+        for (int n = 0; n < nullable.length; n++) {
+            nullable[n] = nullableSet.isNullable(index.nonterminal(n));
+        }
+
+        return nullable;
+    }
+}
@@ -7,7 +7,9 @@ package generator;
 
 /**
  * Represents context-free grammars.
- * Grammars should be immutable.
+ * Grammars are immutable: the constructor copies the given sets
+ * and freezes the copies, so a grammar can be shared across threads.
+ * The sets of the caller stay modifiable.
  */
 public class Grammar {
 
@@ -23,6 +25,15 @@ public class Grammar {
     /** Every word of this grammar must begin with this start symbol */
     public final Nonterminal StartSymbol;
 
+    /** Interned symbols of the grammar */
+    public final SymbolTable Symbols;
+
+    /** Nullable nonterminals, computed on the first request */
+    private volatile NullableSet nullableSet;
+
+    /** Canonical hash of the grammar, computed on the first request */
+    private volatile String fingerprint;
+
     /**
      * Create a new context-free grammar
      * @param nonterminals Allowed variables (nonterminals)
@@ -31,10 +42,112 @@ public class Grammar {
      * @param startSymbol First symbol for all allowed word
      */
     public Grammar(SymbolSet nonterminals, SymbolSet terminals, ProductionSet productions, Nonterminal startSymbol) {
-        this.Nonterminals = nonterminals;
-        this.Terminals = terminals;
-        this.Productions = productions;
-        this.StartSymbol = startSymbol;
+        this(nonterminals, terminals, productions, startSymbol, new SymbolTable());
+    }
+
+    /**
+     * Create a new context-free grammar with an existing symbol table.
+     * All symbols of the grammar are interned in the table and the sets
+     * and productions of the grammar are rebuilt from the interned symbols.
+     * The table must not be used by other grammars after the construction.
+     * @param nonterminals Allowed variables (nonterminals)
+     * @param terminals Allowed terminal symbols
+     * @param productions Production rules for derivation of words
+     * @param startSymbol First symbol for all allowed word
+     * @param symbols Table of the interned symbols
+     */
+    public Grammar(SymbolSet nonterminals, SymbolSet terminals, ProductionSet productions, Nonterminal startSymbol, SymbolTable symbols) {
+        this.StartSymbol = (startSymbol != null) ? (Nonterminal)symbols.intern(startSymbol) : null;
+        this.Nonterminals = Intern(nonterminals, symbols).freeze();
+        this.Terminals = Intern(terminals, symbols).freeze();
+        this.Productions = Intern(productions, symbols).freeze();
+        this.Symbols = symbols;
+    }
+
+    private static SymbolSet Intern(SymbolSet set, SymbolTable table) {
+        SymbolSet interned = new SymbolSet();
+
+        for (Symbol sy : set) {
+            interned.add(table.intern(sy));
+        }
+
+        return interned;
+    }
+
+    private static ProductionSet Intern(ProductionSet set, SymbolTable table) {
+        ProductionSet interned = new ProductionSet();
+
+        for (Production p : set) {
+            interned.add(Intern(p, table));
+        }
+
+        return interned;
+    }
+
+    /**
+     * Replace a production when one of its symbols is not the interned instance
+     * @param p The production to intern
+     * @param table The table of the interned symbols
+     * @return The production itself or a copy with the interned symbols
+     */
+    private static Production Intern(Production p, SymbolTable table) {
+        Nonterminal leftSide = (Nonterminal)table.intern(p.LeftSide);
+        Symbol[] rightSide = null;
+
+        for (int i = 0; i < p.RightSide.length(); i++) {
+            Symbol sy = p.RightSide.get(i);
+            Symbol interned = table.intern(sy);
+
+            if (interned != sy && rightSide == null) {
+                rightSide = new Symbol[p.RightSide.length()];
+
+                for (int j = 0; j < i; j++) {
+                    rightSide[j] = p.RightSide.get(j);
+                }
+            }
+
+            if (rightSide != null) {
+                rightSide[i] = interned;
+            }
+        }
+
+        if (leftSide == p.LeftSide && rightSide == null) {
+            return p;
+        }
+
+        return new Production(leftSide, (rightSide != null) ? Word.Adopt(rightSide) : p.RightSide);
+    }
+
+    /**
+     * Get the nullable nonterminals of the grammar. The set is
+     * computed once and reused for all following requests.
+     * @return All nonterminals that can derive the empty word
+     */
+    public NullableSet nullable() {
+        NullableSet set = nullableSet;
+
+        if (set == null) {
+            set = new NullableSet(this);
+            nullableSet = set;
+        }
+
+        return set;
+    }
+
+    /**
+     * Get the canonical hash of the grammar. The hash does not depend
+     * on the order of the productions and is computed only once.
+     * @return The SHA-256 fingerprint as hex string
+     */
+    public String fingerprint() {
+        String hash = fingerprint;
+
+        if (hash == null) {
+            hash = GrammarFingerprint.Of(this);
+            fingerprint = hash;
+        }
+
+        return hash;
     }
 
     @Override
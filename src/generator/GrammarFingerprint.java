@@ -0,0 +1,151 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Canonical SHA-256 hash of the content of a grammar. Every symbol is
+ * encoded by its kind and name, the symbol sets and the productions are
+ * sorted by their encoding. So the hash does not depend on the order of
+ * the productions or on the whitespaces of the grammar text, but two
+ * grammars with the same hash have the same symbols, productions and
+ * start symbol.
+ */
+public class GrammarFingerprint {
+
+    /** Prefix of the hashed data, changed when the encoding changes */
+    private static final String DOMAIN = "FirstFollow-Grammar-1";
+
+    /**
+     * Compute the fingerprint of a grammar
+     * @param grammar The grammar to hash
+     * @return The SHA-256 hash as lower case hex string
+     */
+    public static String Of(Grammar grammar) {
+        MessageDigest digest = Sha256();
+        digest.update(DOMAIN.getBytes(StandardCharsets.UTF_8));
+        digest.update(Encode(grammar.StartSymbol));
+
+        UpdateSorted(digest, Encode(grammar.Nonterminals));
+        UpdateSorted(digest, Encode(grammar.Terminals));
+        UpdateSorted(digest, grammar.Productions.stream().map(GrammarFingerprint::Encode).toArray(byte[][]::new));
+
+        return Hex(digest.digest());
+    }
+
+    /**
+     * Sort the productions of a grammar by their canonical encoding
+     * @param grammar The grammar with the productions
+     * @return New array with the productions in canonical order
+     */
+    public static Production[] CanonicalOrder(Grammar grammar) {
+        Production[] productions = grammar.Productions.toArray(new Production[0]);
+        byte[][] keys = new byte[productions.length][];
+        Integer[] order = new Integer[productions.length];
+
+        for (int i = 0; i < productions.length; i++) {
+            keys[i] = Encode(productions[i]);
+            order[i] = i;
+        }
+
+        Arrays.sort(order, Comparator.comparing(i -> keys[i], Arrays::compareUnsigned));
+        Production[] sorted = new Production[productions.length];
+
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = productions[order[i]];
+        }
+
+        return sorted;
+    }
+
+    /**
+     * Encode a symbol with its kind and the length of its name
+     * @param sy The symbol or null
+     * @return The encoded symbol
+     */
+    static byte[] Encode(Symbol sy) {
+        if (sy == null) {
+            return new byte[]{ 0 };
+        }
+
+        byte[] name = sy.text.getBytes(StandardCharsets.UTF_8);
+        byte[] data = new byte[name.length + 5];
+
+        data[0] = (byte)((sy instanceof Nonterminal) ? 'N' : 'T');
+        data[1] = (byte)(name.length >>> 24);
+        data[2] = (byte)(name.length >>> 16);
+        data[3] = (byte)(name.length >>> 8);
+        data[4] = (byte)name.length;
+        System.arraycopy(name, 0, data, 5, name.length);
+
+        return data;
+    }
+
+    private static byte[] Encode(Production p) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+
+        try {
+            data.write(Encode(p.LeftSide));
+            data.writeInt(p.RightSide.length());
+
+            for (Symbol sy : p.RightSide) {
+                data.write(Encode(sy));
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[][] Encode(SymbolSet symbols) {
+        return symbols.stream().map(GrammarFingerprint::Encode).toArray(byte[][]::new);
+    }
+
+    private static void UpdateSorted(MessageDigest digest, byte[][] encoded) {
+        Arrays.sort(encoded, Arrays::compareUnsigned);
+        UpdateCount(digest, encoded.length);
+
+        for (byte[] data : encoded) {
+            digest.update(data);
+        }
+    }
+
+    private static void UpdateCount(MessageDigest digest, int count) {
+        digest.update(new byte[]{ (byte)(count >>> 24), (byte)(count >>> 16), (byte)(count >>> 8), (byte)count });
+    }
+
+    private static MessageDigest Sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            //Every Java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String Hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >>> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return sb.toString();
+    }
+}
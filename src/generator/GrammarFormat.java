@@ -0,0 +1,232 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary format of context-free grammars. A grammar is stored as the
+ * names of its symbol table followed by the ordinals of the nonterminals,
+ * the terminals, the productions and the start symbol. All numbers are
+ * big-endian ints, names are UTF-8 bytes with their length:
+ *
+ * magic, version, symbol count, (kind byte, name length, name bytes)*,
+ * nonterminal count, ordinals, terminal count, ordinals,
+ * production count, (left side, right side length, ordinals)*, start
+ *
+ * The empty word and the end-marker have the fixed ordinals of every
+ * symbol table and are not stored. Loading a grammar restores the same
+ * ordinals and the same order of all sets.
+ */
+public class GrammarFormat {
+
+    /** First bytes of every grammar file: "FFGR" */
+    public static final int MAGIC = 0x46464752;
+
+    /** Version of the written format */
+    public static final int VERSION = 1;
+
+    private static final byte TERMINAL = 0;
+    private static final byte NONTERMINAL = 1;
+
+    /** Number of fixed symbols at the begin of every symbol table */
+    private static final int FIXED_SYMBOLS = 2;
+
+    /**
+     * Write a grammar in the binary format
+     * @param grammar The grammar to write
+     * @param out The stream for the data, it is not closed
+     * @throws IOException When the stream fails
+     */
+    public static void Write(Grammar grammar, OutputStream out) throws IOException {
+        SymbolTable table = grammar.Symbols;
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(table.size() - FIXED_SYMBOLS);
+
+        for (int ordinal = FIXED_SYMBOLS; ordinal < table.size(); ordinal++) {
+            Symbol sy = table.symbol(ordinal);
+            byte[] name = sy.text.getBytes(StandardCharsets.UTF_8);
+
+            data.writeByte((sy instanceof Nonterminal) ? NONTERMINAL : TERMINAL);
+            data.writeInt(name.length);
+            data.write(name);
+        }
+
+        WriteSymbols(data, table, grammar.Nonterminals);
+        WriteSymbols(data, table, grammar.Terminals);
+        data.writeInt(grammar.Productions.size());
+
+        for (Production p : grammar.Productions) {
+            data.writeInt(table.ordinal(p.LeftSide));
+            data.writeInt(p.RightSide.length());
+
+            for (Symbol sy : p.RightSide) {
+                data.writeInt(table.ordinal(sy));
+            }
+        }
+
+        data.writeInt((grammar.StartSymbol != null) ? table.ordinal(grammar.StartSymbol) : -1);
+        data.flush();
+    }
+
+    /**
+     * Write a grammar in the binary format to a file
+     * @param grammar The grammar to write
+     * @param path The file is created or replaced
+     * @throws IOException When the file can not be written
+     */
+    public static void Write(Grammar grammar, Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            Write(grammar, out);
+        }
+    }
+
+    /**
+     * Read a grammar in the binary format. The data is read from the
+     * current position of the buffer to the end of the grammar.
+     * @param buffer The buffer with the data
+     * @return The grammar with a new symbol table
+     */
+    public static Grammar Read(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("The data is not a grammar");
+            }
+
+            int version = buffer.getInt();
+
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported grammar version " + version);
+            }
+
+            SymbolTable table = new SymbolTable();
+            int symbolCount = CheckCount(buffer.getInt(), buffer);
+            byte[] name = new byte[64];
+
+            for (int i = 0; i < symbolCount; i++) {
+                byte kind = buffer.get();
+                int length = CheckCount(buffer.getInt(), buffer);
+
+                if (length > name.length) {
+                    name = new byte[Math.max(length, name.length * 2)];
+                }
+
+                buffer.get(name, 0, length);
+                String text = new String(name, 0, length, StandardCharsets.UTF_8);
+                Symbol sy = (kind == NONTERMINAL) ? table.nonterminal(text) : table.terminal(text);
+
+                if (table.ordinal(sy) != FIXED_SYMBOLS + i) {
+                    throw new IllegalArgumentException("Duplicate symbol " + text);
+                }
+            }
+
+            SymbolSet nonterminals = ReadSymbols(buffer, table);
+            SymbolSet terminals = ReadSymbols(buffer, table);
+            int productionCount = CheckCount(buffer.getInt(), buffer);
+            ProductionSet productions = new ProductionSet();
+
+            for (int i = 0; i < productionCount; i++) {
+                Nonterminal leftSide = Nonterminal(table, buffer.getInt());
+                Symbol[] rightSide = new Symbol[CheckCount(buffer.getInt(), buffer)];
+
+                for (int j = 0; j < rightSide.length; j++) {
+                    rightSide[j] = Symbol(table, buffer.getInt());
+                }
+
+                productions.add(new Production(leftSide, Word.Adopt(rightSide)));
+            }
+
+            int start = buffer.getInt();
+            Nonterminal startSymbol = (start >= 0) ? Nonterminal(table, start) : null;
+
+            return new Grammar(nonterminals, terminals, productions, startSymbol, table);
+
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The grammar data is truncated", e);
+        }
+    }
+
+    /**
+     * Read a grammar in the binary format from a memory mapped file
+     * @param path The file with the grammar
+     * @return The grammar with a new symbol table
+     * @throws IOException When the file can not be read
+     */
+    public static Grammar Read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The grammar file is too large");
+            }
+
+            return Read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private static void WriteSymbols(DataOutputStream data, SymbolTable table, SymbolSet symbols) throws IOException {
+        data.writeInt(symbols.size());
+
+        for (Symbol sy : symbols) {
+            data.writeInt(table.ordinal(sy));
+        }
+    }
+
+    private static SymbolSet ReadSymbols(ByteBuffer buffer, SymbolTable table) {
+        int count = CheckCount(buffer.getInt(), buffer);
+        SymbolSet symbols = new SymbolSet();
+
+        for (int i = 0; i < count; i++) {
+            symbols.add(Symbol(table, buffer.getInt()));
+        }
+
+        return symbols;
+    }
+
+    private static Symbol Symbol(SymbolTable table, int ordinal) {
+        if (ordinal < 0 || ordinal >= table.size()) {
+            throw new IllegalArgumentException("Unknown symbol ordinal " + ordinal);
+        }
+
+        return table.symbol(ordinal);
+    }
+
+    private static Nonterminal Nonterminal(SymbolTable table, int ordinal) {
+        Symbol sy = Symbol(table, ordinal);
+
+        if (!(sy instanceof Nonterminal)) {
+            throw new IllegalArgumentException("Symbol " + sy + " is not a nonterminal");
+        }
+
+        return (Nonterminal)sy;
+    }
+
+    /**
+     * Check a count against the remaining data, so corrupted
+     * data can not cause huge allocations
+     * @param count The count that was read
+     * @param buffer The buffer with the remaining data
+     * @return The valid count
+     */
+    private static int CheckCount(int count, ByteBuffer buffer) {
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid count " + count);
+        }
+
+        return count;
+    }
+}
@@ -5,8 +5,33 @@
 // ---------------------------------------------------------------------
 package generator;
 
-import java.util.*;
-import static generator.SymbolSet.*;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
 import static generator.Singletons.*;
 
 /**
@@ -15,121 +40,675 @@ import static generator.Singletons.*;
  */
 public class GrammarParser {
 
+    /** Minimal number of bytes of a chunk for the parallel parsing */
+    private static final int CHUNK_SIZE = 4 << 20;
+
     /**
-     * Parse a context-free grammar by a text array
+     * Parse a context-free grammar by a text array. Lines without "->"
+     * are ignored, the left side of the first line is the start symbol.
      * @param lines Every line should contain one production
      * @return The parsed context-free grammar
      */
     public static Grammar ParseGrammar(String[] lines) {
-        //Remove invalid lines
-        lines = Arrays.stream(lines)
-                .filter(line -> line.contains("->"))
-                .toArray(String[]::new);
+        try {
+            return Parse(consumer -> {
+                for (String line : lines) {
+                    consumer.accept(line);
+                }
+            });
 
-        //Parse nonterminals
-        SymbolSet nonterminals = Arrays.stream(lines)
-                .map(line -> line.split("->")[0].trim())
-                .map(Nonterminal::new)
-                .collect(toSymbolSet());
-
-        //Sort the nonterminals by their length for the longest match
-        Nonterminal[] sortedNonterminals = nonterminals.stream()
-                .sorted((a, b) -> b.text.length() - a.text.length())
-                .toArray(Nonterminal[]::new);
-
-        //Parse terminals
-        SymbolSet terminals = Arrays.stream(lines)
-                .map(line -> {
-                    String rightSide = line.split("->")[1].trim();
-
-                    for (Symbol n : sortedNonterminals) {
-                        rightSide = rightSide.replace(n.text, "");
+        } catch (IOException e) {
+            //The lines are already in memory
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parse a context-free grammar from a character stream. The stream can
+     * only be read once, so the lines with a production are copied to a
+     * temporary file, which is parsed like ParseGrammar(path). Only one
+     * line is held in memory, all other lines are dropped while reading.
+     * @param reader Every line should contain one production
+     * @return The parsed context-free grammar
+     * @throws IOException When the reader fails or the temporary file can not be written
+     */
+    public static Grammar ParseGrammar(Reader reader) throws IOException {
+        BufferedReader lineReader = (reader instanceof BufferedReader) ? (BufferedReader)reader : new BufferedReader(reader);
+        Path rules = Files.createTempFile("grammar", ".txt");
+
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(rules, StandardCharsets.UTF_8)) {
+                for (String line = lineReader.readLine(); line != null; line = lineReader.readLine()) {
+                    if (line.contains("->")) {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+            }
+
+            return ParseGrammar(rules);
+
+        } finally {
+            Files.deleteIfExists(rules);
+        }
+    }
+
+    /**
+     * Parse a context-free grammar from a UTF-8 encoded byte stream
+     * @param in Every line should contain one production
+     * @return The parsed context-free grammar
+     * @throws IOException When the stream fails
+     */
+    public static Grammar ParseGrammar(InputStream in) throws IOException {
+        return ParseGrammar(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a context-free grammar from a UTF-8 encoded file. The file is
+     * read again for every pass of the parser, so only one line is held
+     * in memory and the size of the file is not limited by the heap.
+     * @param path The file with one production per line
+     * @return The parsed context-free grammar
+     * @throws IOException When the file can not be read
+     */
+    public static Grammar ParseGrammar(Path path) throws IOException {
+        return Parse(consumer -> {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    consumer.accept(line);
+                }
+            }
+        });
+    }
+
+    /**
+     * Parse a context-free grammar from a UTF-8 encoded file in parallel
+     * with the common fork/join pool
+     * @param path The file with one production per line
+     * @return The same grammar as ParseGrammar(path)
+     * @throws IOException When the file can not be read
+     */
+    public static Grammar ParseGrammarParallel(Path path) throws IOException {
+        return ParseGrammarParallel(path, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse a context-free grammar from a UTF-8 encoded file in parallel.
+     * The file is split into chunks at line boundaries and every pass of
+     * the parser handles the chunks in parallel. Every chunk is memory
+     * mapped and decoded again for every pass. The chunk results are
+     * merged in the order of the file, so the order of all symbols and
+     * productions is the same as with the sequential parser.
+     * @param path The file with one production per line
+     * @param pool Execute the chunk tasks with this pool
+     * @return The same grammar as ParseGrammar(path)
+     * @throws IOException When the file can not be read
+     */
+    public static Grammar ParseGrammarParallel(Path path, ForkJoinPool pool) throws IOException {
+        return ParseGrammarParallel(path, pool, CHUNK_SIZE);
+    }
+
+    /**
+     * Parse a context-free grammar from a UTF-8 encoded file in parallel
+     * @param path The file with one production per line
+     * @param pool Execute the chunk tasks with this pool
+     * @param chunkSize Minimal number of bytes of a chunk
+     * @return The same grammar as ParseGrammar(path)
+     * @throws IOException When the file can not be read
+     */
+    static Grammar ParseGrammarParallel(Path path, ForkJoinPool pool, int chunkSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = ChunkBounds(channel, chunkSize);
+            int chunkCount = bounds.length - 1;
+
+            SymbolTable symbolTable = new SymbolTable();
+            SymbolSet nonterminals = new SymbolSet();
+            SymbolSet terminals = new SymbolSet();
+            Trie<Nonterminal> nonterminalTrie = new Trie<>();
+            Trie<Terminal> terminalTrie = new Trie<>();
+
+            //Parse nonterminals, the names are interned in the order of the chunks
+            List<List<String>> leftTexts = RunChunks(pool, chunkCount, chunk -> {
+                List<String> texts = new ArrayList<>();
+                ForEachLine(channel, bounds[chunk], bounds[chunk + 1], line -> {
+                    String leftText = LeftSide(line);
+                    if (leftText != null) texts.add(leftText);
+                });
+                return texts;
+            });
+
+            Nonterminal[][] leftSides = new Nonterminal[chunkCount][];
+            Nonterminal start = null;
+
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                List<String> texts = leftTexts.get(chunk);
+                leftSides[chunk] = new Nonterminal[texts.size()];
+
+                for (int i = 0; i < texts.size(); i++) {
+                    Nonterminal leftSide = symbolTable.nonterminal(texts.get(i));
+                    leftSides[chunk][i] = leftSide;
+
+                    if (nonterminals.add(leftSide)) {
+                        nonterminalTrie.put(leftSide.text, leftSide);
+                    }
+
+                    if (start == null) start = leftSide;
+                }
+            }
+
+            if (start == null) {
+                throw new IllegalArgumentException("The grammar has no productions");
+            }
+
+            //Parse terminals, every chunk collects the names in the order of their first occurrence
+            List<Set<String>> terminalTexts = RunChunks(pool, chunkCount, chunk -> {
+                Set<String> texts = new LinkedHashSet<>();
+                StringBuilder token = new StringBuilder();
+                ForEachLine(channel, bounds[chunk], bounds[chunk + 1], line -> ScanTerminals(line, nonterminalTrie, token, texts::add));
+                return texts;
+            });
+
+            for (Set<String> texts : terminalTexts) {
+                for (String text : texts) {
+                    AddTerminal(text, symbolTable, terminals, terminalTrie);
+                }
+            }
+
+            //Parse productions, the chunks only split the right sides into symbols
+            List<ChunkRules> chunkRules = RunChunks(pool, chunkCount, chunk -> {
+                ChunkRules result = new ChunkRules();
+                List<Symbol> rightSide = new ArrayList<>();
+                int[] rule = new int[1];
+
+                ForEachLine(channel, bounds[chunk], bounds[chunk + 1], line -> {
+                    if (RightBegin(line) >= 0) {
+                        Nonterminal leftSide = leftSides[chunk][rule[0]++];
+
+                        ParseRule(line, nonterminalTrie, terminalTrie, rightSide, symbols -> {
+                            result.leftSides.add(leftSide);
+                            result.rightSides.add(symbols);
+                        });
                     }
+                });
+
+                return result;
+            });
 
-                    rightSide = rightSide.replaceAll("\\|", "").trim();
-                    rightSide = rightSide.replaceAll("( )+", " ").trim();
-                    return rightSide;
+            //Create and intern the productions once in the order of the file
+            ProductionSet productions = new ProductionSet();
 
-                }).filter(str -> !str.isEmpty())
-                .flatMap(str -> Arrays.stream(str.split(" ")))
-                .map(str -> (str.equals("ε")) ? ε : new Terminal(str))
-                .collect(toSymbolSet());
+            for (ChunkRules result : chunkRules) {
+                for (int i = 0; i < result.leftSides.size(); i++) {
+                    productions.add(new Production(result.leftSides.get(i), Word.Adopt(result.rightSides.get(i))));
+                }
+            }
 
-        //Sort the terminals by their length for the longest match
-        Terminal[] sortedTerminals = terminals.stream()
-                .sorted((a, b) -> b.text.length() - a.text.length())
-                .toArray(Terminal[]::new);
+            return new Grammar(nonterminals, terminals, productions, start, symbolTable);
+        }
+    }
 
+    /**
+     * Parse the lines of a source. The lines are scanned with integer
+     * offsets in three passes: the first pass reads the left sides, the
+     * second pass finds the terminals of the right sides and the third pass
+     * splits the right sides into symbols. Nonterminals and terminals are
+     * found with the longest match of a trie, so no substrings are created
+     * except for the symbol names.
+     * @param source Provides the same lines for every pass
+     * @return The parsed context-free grammar
+     * @throws IOException When the source fails
+     */
+    private static Grammar Parse(LineSource source) throws IOException {
+        //All symbols are interned, so every name has only one instance
+        SymbolTable symbolTable = new SymbolTable();
+        SymbolSet nonterminals = new SymbolSet();
+        SymbolSet terminals = new SymbolSet();
+        Trie<Nonterminal> nonterminalTrie = new Trie<>();
+        Trie<Terminal> terminalTrie = new Trie<>();
+
+        //Left sides of all valid lines in the order of the source
+        List<Nonterminal> leftSides = new ArrayList<>();
+
+        //Parse nonterminals
+        source.forEach(line -> {
+            String leftText = LeftSide(line);
+            if (leftText == null) return;
+
+            Nonterminal leftSide = symbolTable.nonterminal(leftText);
+            leftSides.add(leftSide);
+
+            if (nonterminals.add(leftSide)) {
+                nonterminalTrie.put(leftText, leftSide);
+            }
+        });
+
+        if (leftSides.isEmpty()) {
+            throw new IllegalArgumentException("The grammar has no productions");
+        }
+
+        //Parse terminals, the text between the nonterminals forms the terminals
+        StringBuilder token = new StringBuilder();
+        source.forEach(line -> ScanTerminals(line, nonterminalTrie, token, text -> AddTerminal(text, symbolTable, terminals, terminalTrie)));
 
         //Parse productions
         ProductionSet productions = new ProductionSet();
+        List<Symbol> rightSide = new ArrayList<>();
+        int[] rule = new int[1];
+
+        source.forEach(line -> {
+            if (RightBegin(line) < 0) return;
+
+            if (rule[0] >= leftSides.size()) {
+                throw new IllegalStateException("The source has changed while parsing");
+            }
+
+            Nonterminal leftSide = leftSides.get(rule[0]++);
+            ParseRule(line, nonterminalTrie, terminalTrie, rightSide, symbols -> productions.add(new Production(leftSide, Word.Adopt(symbols))));
+        });
 
-        for (String line : lines) {
-            String[] lineSplit = line.split("->");
-            String[] subRuleSplit = lineSplit[1].split("\\|");
+        return new Grammar(nonterminals, terminals, productions, leftSides.get(0), symbolTable);
+    }
 
-            Nonterminal leftSide = nonterminals.stream()
-                    .filter(n -> n.text.equals(lineSplit[0].trim()))
-                    .findFirst()
-                    .map(Nonterminal.class::cast)
-                    .orElse(null);
+    /**
+     * Get the left side of a line
+     * @param line The line of the production
+     * @return The trimmed text before the first arrow or null when the line has no arrow
+     */
+    private static String LeftSide(String line) {
+        int arrow = line.indexOf("->");
+        if (arrow < 0) return null;
 
-            for (String subRule : subRuleSplit) {
-                List<Symbol> rightSide = new LinkedList<>();
-                String restRule = subRule.trim();
+        String leftText = line.substring(0, arrow).trim();
 
-                while (!restRule.isEmpty()) {
-                    boolean foundNonterminal = false;
+        if (leftText.isEmpty()) {
+            throw new IllegalArgumentException("Missing left side: " + line);
+        }
 
-                    //Try to match with the longest nonterminal first
-                    for (Nonterminal n : sortedNonterminals) {
+        return leftText;
+    }
 
-                        if (restRule.length() >= n.text.length() &&
-                            n.text.equals(restRule.substring(0, n.text.length()))) {
+    /**
+     * Find the begin of the right side of a line
+     * @param line The line of the production
+     * @return Index after the first arrow or -1 when the line has no arrow
+     */
+    private static int RightBegin(String line) {
+        int arrow = line.indexOf("->");
+        return (arrow < 0) ? -1 : arrow + 2;
+    }
 
-                            rightSide.add(n);
-                            restRule = restRule.substring(n.text.length()).trim();
-                            foundNonterminal = true;
-                            break;
-                        }
-                    }
+    /**
+     * Find the end of the right side of a line
+     * @param line The line of the production
+     * @param begin Index of the first character of the right side
+     * @return Index of the next arrow or the length of the line
+     */
+    private static int RightEnd(String line, int begin) {
+        int next = line.indexOf("->", begin);
+        return (next < 0) ? line.length() : next;
+    }
 
-                    //Try to match with the longest terminal
-                    if (!foundNonterminal) {
-                        for (Terminal t : sortedTerminals) {
-
-                            if (restRule.charAt(0) == 'ε') {
-                                rightSide.add(ε);
-                                restRule = restRule.substring(1);
-                                break;
-                            }
-
-                            if (t != ε &&
-                                restRule.length() >= t.text.length() &&
-                                t.text.equals(restRule.substring(0, t.text.length()))) {
-                                rightSide.add(t);
-                                restRule = restRule.substring(t.text.length()).trim();
-                                break;
-                            }
-                        }
+    /**
+     * Find the terminals of the right side of a line. The text between
+     * the nonterminals, whitespaces and bars forms the terminal names.
+     * @param line The line of the production
+     * @param nonterminals Trie with all nonterminals
+     * @param token Buffer for the characters of a terminal
+     * @param terminals Receives the terminal names in the order of the line
+     */
+    private static void ScanTerminals(String line, Trie<Nonterminal> nonterminals, StringBuilder token, Consumer<String> terminals) {
+        int index = RightBegin(line);
+        if (index < 0) return;
+        int end = RightEnd(line, index);
+
+        while (index < end) {
+            char c = line.charAt(index);
+            Nonterminal n = nonterminals.match(line, index, end);
+
+            if (n != null) {
+                index += n.text.length();
+
+            } else if (c <= ' ' || c == '|') {
+                FlushToken(token, terminals);
+                index++;
+
+            } else {
+                token.append(c);
+                index++;
+            }
+        }
+
+        FlushToken(token, terminals);
+    }
+
+    private static void FlushToken(StringBuilder token, Consumer<String> terminals) {
+        if (token.length() > 0) {
+            terminals.accept(token.toString());
+            token.setLength(0);
+        }
+    }
+
+    /**
+     * Split the alternatives of the right side of a line into symbols
+     * @param line The line of the production
+     * @param nonterminals Trie with all nonterminals
+     * @param terminals Trie with all terminals
+     * @param rightSide Buffer for the symbols of an alternative
+     * @param alternatives Receives the right sides in the order of the line
+     */
+    private static void ParseRule(String line, Trie<Nonterminal> nonterminals, Trie<Terminal> terminals,
+                                  List<Symbol> rightSide, Consumer<Symbol[]> alternatives) {
+        int index = RightBegin(line);
+        int end = RightEnd(line, index);
+
+        while (index <= end) {
+            int alternativeEnd = line.indexOf('|', index);
+
+            if (alternativeEnd < 0 || alternativeEnd > end) {
+                alternativeEnd = end;
+            }
+
+            ParseAlternative(line, index, alternativeEnd, nonterminals, terminals, rightSide);
+
+            if (!rightSide.isEmpty()) {
+                alternatives.accept(rightSide.toArray(new Symbol[0]));
+                rightSide.clear();
+            }
+
+            index = alternativeEnd + 1;
+        }
+    }
+
+    /**
+     * Split an alternative of a right side into symbols. The longest
+     * nonterminal is matched first, then the empty word and then the
+     * longest terminal.
+     * @param line The line of the production
+     * @param begin Index of the first character of the alternative
+     * @param end Index after the last character of the alternative
+     * @param nonterminals Trie with all nonterminals
+     * @param terminals Trie with all terminals
+     * @param rightSide Add the symbols to this list
+     */
+    private static void ParseAlternative(String line, int begin, int end, Trie<Nonterminal> nonterminals,
+                                         Trie<Terminal> terminals, List<Symbol> rightSide) {
+        int index = begin;
+
+        while (true) {
+            while (index < end && line.charAt(index) <= ' ') {
+                index++;
+            }
+
+            if (index >= end) {
+                break;
+            }
+
+            Nonterminal n = nonterminals.match(line, index, end);
+
+            if (n != null) {
+                rightSide.add(n);
+                index += n.text.length();
+                continue;
+            }
+
+            if (line.charAt(index) == 'ε') {
+                rightSide.add(ε);
+                index++;
+                continue;
+            }
+
+            Terminal t = terminals.match(line, index, end);
+
+            if (t == null) {
+                throw new IllegalArgumentException("Unknown symbol at index " + index + ": " + line);
+            }
+
+            rightSide.add(t);
+            index += t.text.length();
+        }
+    }
+
+    /**
+     * Intern a terminal name and add the terminal to the set and the trie
+     * @param text Name of the terminal
+     * @param symbolTable Intern the terminal in this table
+     * @param terminals Add the terminal to this set
+     * @param trie Add the terminal to this trie
+     */
+    private static void AddTerminal(String text, SymbolTable symbolTable, SymbolSet terminals, Trie<Terminal> trie) {
+        if (text.equals("ε")) {
+            terminals.add(ε);
+
+        } else {
+            Terminal t = symbolTable.terminal(text);
+
+            if (terminals.add(t)) {
+                trie.put(text, t);
+            }
+        }
+    }
+
+    /**
+     * Split a file into chunks that end after a line break
+     * @param channel The channel of the file
+     * @param chunkSize Minimal number of bytes of a chunk
+     * @return Byte offsets of the chunks, the last offset is the size of the file
+     * @throws IOException When the file can not be read
+     */
+    private static long[] ChunkBounds(FileChannel channel, int chunkSize) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[(int)(size / chunkSize) + 2];
+        int count = 1;
+        long position = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        while (position < size) {
+            long end = Math.min(size, position + chunkSize);
+
+            //Move the end after the next line break, a '\n' byte is never part of another UTF-8 character
+            search:
+            while (end < size) {
+                buffer.clear();
+                int read = channel.read(buffer, end);
+                if (read <= 0) break;
+
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        end += i + 1;
+                        break search;
                     }
                 }
 
-                if (!rightSide.isEmpty()) {
-                    Word rightWord = new Word(rightSide.toArray(new Symbol[0]));
-                    productions.add(new Production(leftSide, rightWord));
+                end += read;
+            }
+
+            end = Math.min(end, size);
+            bounds[count++] = end;
+            position = end;
+        }
+
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Decode a memory mapped chunk and pass all lines to a consumer.
+     * The lines are split like with BufferedReader.readLine().
+     * @param channel The channel of the file
+     * @param begin Byte offset of the chunk
+     * @param end Byte offset after the chunk
+     * @param consumer Receives the lines of the chunk
+     * @throws IOException When the chunk can not be mapped or decoded
+     */
+    private static void ForEachLine(FileChannel channel, long begin, long end, LineConsumer consumer) throws IOException {
+        MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, begin, end - begin);
+        CharBuffer chars = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(bytes);
+
+        int length = chars.length();
+        int lineBegin = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = chars.get(i);
+
+            if (c == '\n' || c == '\r') {
+                consumer.accept(chars.subSequence(lineBegin, i).toString());
+
+                if (c == '\r' && i + 1 < length && chars.get(i + 1) == '\n') i++;
+                lineBegin = i + 1;
+            }
+        }
+
+        if (lineBegin < length) {
+            consumer.accept(chars.subSequence(lineBegin, length).toString());
+        }
+    }
+
+    /**
+     * Execute a task for every chunk and wait for all results
+     * @param pool Execute the tasks with this pool
+     * @param chunkCount Number of chunks
+     * @param task Computes the result of a chunk
+     * @return The results in the order of the chunks
+     * @throws IOException When a task fails to read its chunk
+     */
+    private static <T> List<T> RunChunks(ForkJoinPool pool, int chunkCount, ChunkTask<T> task) throws IOException {
+        List<Callable<T>> tasks = new ArrayList<>(chunkCount);
+
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int index = chunk;
+            tasks.add(() -> task.run(index));
+        }
+
+        List<T> results = new ArrayList<>(chunkCount);
+
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while parsing", e);
+
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException)cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+                if (cause instanceof Error) throw (Error)cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Prefix tree of symbol names to find the longest symbol at an index.
+     * The children of every node are sorted by their character.
+     */
+    private static final class Trie<S extends Symbol> {
+        private final Node<S> root = new Node<>();
+
+        /**
+         * Add a symbol with its name
+         * @param text Name of the symbol
+         * @param sy The symbol for the name
+         */
+        void put(String text, S sy) {
+            Node<S> node = root;
+
+            for (int i = 0; i < text.length(); i++) {
+                node = node.child(text.charAt(i), true);
+            }
+
+            node.symbol = sy;
+        }
+
+        /**
+         * Find the longest symbol name that starts at an index
+         * @param text The text to scan
+         * @param begin Index of the first character
+         * @param end The match must end before this index
+         * @return The symbol of the longest name or null
+         */
+        S match(String text, int begin, int end) {
+            Node<S> node = root;
+            S longest = null;
+
+            for (int i = begin; i < end; i++) {
+                node = node.child(text.charAt(i), false);
+                if (node == null) break;
+                if (node.symbol != null) longest = node.symbol;
+            }
+
+            return longest;
+        }
+
+        private static final class Node<S> {
+            private char[] keys = new char[0];
+            private Node<S>[] children = newArray(0);
+            private S symbol;
+
+            Node<S> child(char c, boolean create) {
+                int index = Arrays.binarySearch(keys, c);
+
+                if (index >= 0) {
+                    return children[index];
                 }
+
+                if (!create) {
+                    return null;
+                }
+
+                //Insert the new child at its sorted position
+                int position = ~index;
+                Node<S> child = new Node<>();
+                char[] newKeys = new char[keys.length + 1];
+                Node<S>[] newChildren = newArray(keys.length + 1);
+
+                System.arraycopy(keys, 0, newKeys, 0, position);
+                System.arraycopy(children, 0, newChildren, 0, position);
+                System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+                System.arraycopy(children, position, newChildren, position + 1, keys.length - position);
+                newKeys[position] = c;
+                newChildren[position] = child;
+
+                keys = newKeys;
+                children = newChildren;
+                return child;
+            }
+
+            @SuppressWarnings("unchecked")
+            private static <S> Node<S>[] newArray(int length) {
+                return (Node<S>[]) new Node<?>[length];
             }
         }
+    }
 
-        //Find the start symbol
-        String startText = lines[0].split("->")[0].trim();
-        Nonterminal start = nonterminals.stream()
-                .filter(n -> n.text.equals(startText))
-                .findFirst()
-                .map(Nonterminal.class::cast)
-                .orElse(null);
+    /**
+     * Provides the lines of a grammar for every pass of the parser
+     */
+    private interface LineSource {
+        void forEach(LineConsumer consumer) throws IOException;
+    }
+
+    private interface LineConsumer {
+        void accept(String line);
+    }
 
-        return new Grammar(nonterminals, terminals, productions, start);
+    /**
+     * Right sides of the productions of one chunk with their left sides
+     */
+    private static final class ChunkRules {
+        private final List<Nonterminal> leftSides = new ArrayList<>();
+        private final List<Symbol[]> rightSides = new ArrayList<>();
+    }
+
+    /**
+     * Computes the result of one chunk of a file
+     */
+    private interface ChunkTask<T> {
+        T run(int chunk) throws IOException;
     }
 }
@@ -0,0 +1,719 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.*;
+
+import static generator.Singletons.*;
+import static generator.SymbolIndex.*;
+
+/**
+ * Maintains the first, follow and predict sets of a grammar that is
+ * edited one production at a time. Adding a production can only grow
+ * the sets, so the new facts are propagated with a worklist. Removing
+ * a production resets all sets that depend on the removed production
+ * and derives them again from the remaining productions.
+ */
+public class IncrementalAnalysis {
+
+    /** Every word of the analyzed grammar must begin with this start symbol */
+    public final Nonterminal StartSymbol;
+
+    private final Map<Symbol, Integer> terminalIds = new HashMap<>();
+    private final Map<Symbol, Integer> nonterminalIds = new HashMap<>();
+    private final Map<Production, Integer> productionIds = new LinkedHashMap<>();
+
+    private final List<Terminal> terminals = new ArrayList<>();
+    private final List<Nonterminal> nonterminals = new ArrayList<>();
+    private final List<Production> productions = new ArrayList<>();
+
+    private final List<IntList> alternatives = new ArrayList<>();
+    private final List<IntList> readers = new ArrayList<>();
+    private final IntList leftSides = new IntList();
+    private final List<int[]> rightSides = new ArrayList<>();
+
+    private final List<long[]> firstSets = new ArrayList<>();
+    private final List<long[]> followSets = new ArrayList<>();
+    private final List<long[]> predictSets = new ArrayList<>();
+
+    /** Ids of removed productions, reused by the next added productions */
+    private final IntList freeIds = new IntList();
+
+    /** Productions that are in the worklist */
+    private boolean[] queued = new boolean[0];
+
+    /** Number of longs in every bitset */
+    private int words = 1;
+
+    /**
+     * Create the analysis of a context-free grammar
+     * @param grammar The initial grammar of the analysis
+     */
+    public IncrementalAnalysis(Grammar grammar) {
+        this.StartSymbol = grammar.StartSymbol;
+
+        terminalId(ε);
+        terminalId(Endmarker);
+        nonterminalId(StartSymbol);
+
+        for (Symbol n : grammar.Nonterminals) {
+            nonterminalId(n);
+        }
+
+        for (Production p : grammar.Productions) {
+            addProduction(p);
+        }
+    }
+
+    /**
+     * Add a production and update all sets that depend on it
+     * @param production The new production rule
+     * @return False when the production was already part of the grammar
+     */
+    public boolean addProduction(Production production) {
+        if (productionIds.containsKey(production)) {
+            return false;
+        }
+
+        int p = register(production);
+
+        //Additional productions can only grow the sets
+        IntList changedFirst = propagateFirst(IntList.of(p));
+        IntList followSeeds = IntList.of(p);
+
+        for (int i = 0; i < changedFirst.size(); i++) {
+            followSeeds.addAll(readers.get(changedFirst.get(i)));
+        }
+
+        IntList changedFollow = propagateFollow(followSeeds);
+        updatePredict(IntList.of(p), changedFirst, changedFollow);
+        return true;
+    }
+
+    /**
+     * Remove a production and update all sets that depend on it
+     * @param production The production rule to remove
+     * @return False when the production was not part of the grammar
+     */
+    public boolean removeProduction(Production production) {
+        Integer id = productionIds.remove(production);
+
+        if (id == null) {
+            return false;
+        }
+
+        int p = id;
+        int leftSide = leftSides.get(p);
+        int[] rightSide = rightSides.get(p);
+        unregister(p);
+
+        //All nonterminals that read the left side may lose first symbols
+        IntList firstRegion = closure(IntList.of(leftSide), true);
+        List<long[]> oldFirstSets = reset(firstRegion, firstSets);
+        IntList firstSeeds = new IntList();
+
+        for (int i = 0; i < firstRegion.size(); i++) {
+            firstSeeds.addAll(alternatives.get(firstRegion.get(i)));
+        }
+
+        propagateFirst(firstSeeds);
+        IntList changedFirst = changed(firstRegion, oldFirstSets, firstSets);
+
+        //All nonterminals after a changed symbol may lose follow symbols
+        IntList followStart = new IntList();
+        addNonterminals(followStart, rightSide);
+
+        for (int i = 0; i < changedFirst.size(); i++) {
+            IntList changedReaders = readers.get(changedFirst.get(i));
+
+            for (int j = 0; j < changedReaders.size(); j++) {
+                addNonterminals(followStart, rightSides.get(changedReaders.get(j)));
+            }
+        }
+
+        IntList followRegion = closure(followStart, false);
+        List<long[]> oldFollowSets = reset(followRegion, followSets);
+        BitSets.Add(followSets.get(nonterminalId(StartSymbol)), EndmarkerId);
+        IntList followSeeds = new IntList();
+
+        for (int i = 0; i < followRegion.size(); i++) {
+            followSeeds.addAll(readers.get(followRegion.get(i)));
+        }
+
+        propagateFollow(followSeeds);
+        IntList changedFollow = changed(followRegion, oldFollowSets, followSets);
+
+        updatePredict(new IntList(), changedFirst, changedFollow);
+        return true;
+    }
+
+    /**
+     * Create the grammar with the current productions
+     * @return The edited context-free grammar
+     */
+    public Grammar grammar() {
+        SymbolSet terminalSet = new SymbolSet();
+        ProductionSet productionSet = new ProductionSet();
+
+        for (Production p : productionIds.keySet()) {
+            productionSet.add(p);
+
+            for (Symbol sy : p.RightSide) {
+                if (sy instanceof Terminal) {
+                    terminalSet.add(sy);
+                }
+            }
+        }
+
+        return new Grammar(liveNonterminals(), terminalSet, productionSet, StartSymbol);
+    }
+
+    /**
+     * Get the current first sets
+     * @return Map with all nonterminals as keys and first sets as values
+     */
+    public Map<Symbol, SymbolSet> first() {
+        Map<Symbol, SymbolSet> sets = new HashMap<>();
+
+        for (Symbol n : liveNonterminals()) {
+            sets.put(n, first(n));
+        }
+
+        return sets;
+    }
+
+    /**
+     * Get the current follow sets
+     * @return Map with all nonterminals as keys and follow sets as values
+     */
+    public Map<Symbol, SymbolSet> follow() {
+        Map<Symbol, SymbolSet> sets = new HashMap<>();
+
+        for (Symbol n : liveNonterminals()) {
+            sets.put(n, follow(n));
+        }
+
+        return sets;
+    }
+
+    /**
+     * Get the current predict sets
+     * @return Map with all productions as keys and predict sets as values
+     */
+    public Map<Production, SymbolSet> predict() {
+        Map<Production, SymbolSet> sets = new HashMap<>();
+
+        for (Map.Entry<Production, Integer> entry : productionIds.entrySet()) {
+            sets.put(entry.getKey(), toSymbolSet(predictSets.get(entry.getValue())));
+        }
+
+        return sets;
+    }
+
+    /**
+     * Get the current first set of a nonterminal
+     * @param n The nonterminal symbol
+     * @return Set with all first symbols of the nonterminal
+     */
+    public SymbolSet first(Symbol n) {
+        Integer id = nonterminalIds.get(n);
+        return (id == null) ? new SymbolSet() : toSymbolSet(firstSets.get(id));
+    }
+
+    /**
+     * Get the current follow set of a nonterminal
+     * @param n The nonterminal symbol
+     * @return Set with all follow symbols of the nonterminal
+     */
+    public SymbolSet follow(Symbol n) {
+        Integer id = nonterminalIds.get(n);
+        return (id == null) ? new SymbolSet() : toSymbolSet(followSets.get(id));
+    }
+
+    /**
+     * Get the current predict set of a production
+     * @param production The production rule
+     * @return Set with all predict symbols of the production
+     */
+    public SymbolSet predict(Production production) {
+        Integer id = productionIds.get(production);
+        return (id == null) ? new SymbolSet() : toSymbolSet(predictSets.get(id));
+    }
+
+    /**
+     * Add new fact to the first sets until no set changes
+     * @param seeds Productions that have to be visited
+     * @return Nonterminals with a grown first set
+     */
+    private IntList propagateFirst(IntList seeds) {
+        IntList changed = new IntList();
+        boolean[] marks = new boolean[nonterminals.size()];
+        IntList worklist = enqueue(new IntList(), seeds);
+
+        for (int head = 0; head < worklist.size(); head++) {
+            int p = worklist.get(head);
+            queued[p] = false;
+
+            int leftSide = leftSides.get(p);
+            long[] set = firstSets.get(leftSide);
+            boolean setChanged = false;
+            boolean nullable = true;
+
+            for (int code : rightSides.get(p)) {
+
+                if (code < 0) {
+                    setChanged |= BitSets.Add(set, ~code);
+                    nullable = false;
+                    break;
+
+                } else {
+                    setChanged |= BitSets.UnionWithout(set, firstSets.get(code), εId);
+
+                    if (!BitSets.Contains(firstSets.get(code), εId)) {
+                        nullable = false;
+                        break;
+                    }
+                }
+            }
+
+            if (nullable) {
+                setChanged |= BitSets.Add(set, εId);
+            }
+
+            if (setChanged) {
+                addMarked(changed, marks, leftSide);
+                enqueue(worklist, readers.get(leftSide));
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Add new facts to the follow sets until no set changes
+     * @param seeds Productions that have to be visited
+     * @return Nonterminals with a grown follow set
+     */
+    private IntList propagateFollow(IntList seeds) {
+        IntList changed = new IntList();
+        boolean[] marks = new boolean[nonterminals.size()];
+        IntList worklist = enqueue(new IntList(), seeds);
+
+        for (int head = 0; head < worklist.size(); head++) {
+            int p = worklist.get(head);
+            queued[p] = false;
+
+            int[] rightSide = rightSides.get(p);
+
+            for (int i = 0; i < rightSide.length; i++) {
+                if (rightSide[i] < 0) continue;
+
+                long[] set = followSets.get(rightSide[i]);
+                boolean setChanged = false;
+                boolean nullable = true;
+
+                for (int j = i + 1; j < rightSide.length; j++) {
+                    int code = rightSide[j];
+
+                    if (code < 0) {
+                        setChanged |= BitSets.Add(set, ~code);
+                        nullable = false;
+                        break;
+
+                    } else {
+                        setChanged |= BitSets.UnionWithout(set, firstSets.get(code), εId);
+
+                        if (!BitSets.Contains(firstSets.get(code), εId)) {
+                            nullable = false;
+                            break;
+                        }
+                    }
+                }
+
+                if (nullable) {
+                    setChanged |= BitSets.Union(set, followSets.get(leftSides.get(p)));
+                }
+
+                if (setChanged) {
+                    addMarked(changed, marks, rightSide[i]);
+                    enqueue(worklist, alternatives.get(rightSide[i]));
+                }
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Compute the predict sets of all productions that depend on changed sets
+     * @param productionSeeds Productions that always have to be computed
+     * @param changedFirst Nonterminals with a changed first set
+     * @param changedFollow Nonterminals with a changed follow set
+     */
+    private void updatePredict(IntList productionSeeds, IntList changedFirst, IntList changedFollow) {
+        IntList affected = enqueue(new IntList(), productionSeeds);
+
+        for (int i = 0; i < changedFirst.size(); i++) {
+            enqueue(affected, readers.get(changedFirst.get(i)));
+        }
+
+        for (int i = 0; i < changedFollow.size(); i++) {
+            enqueue(affected, alternatives.get(changedFollow.get(i)));
+        }
+
+        for (int i = 0; i < affected.size(); i++) {
+            int p = affected.get(i);
+            queued[p] = false;
+
+            long[] set = predictSets.get(p);
+            Arrays.fill(set, 0);
+            boolean nullable = true;
+
+            for (int code : rightSides.get(p)) {
+
+                if (code < 0) {
+                    BitSets.Add(set, ~code);
+                    nullable = false;
+                    break;
+
+                } else {
+                    BitSets.UnionWithout(set, firstSets.get(code), εId);
+
+                    if (!BitSets.Contains(firstSets.get(code), εId)) {
+                        nullable = false;
+                        break;
+                    }
+                }
+            }
+
+            if (nullable) {
+                BitSets.Union(set, followSets.get(leftSides.get(p)));
+            }
+        }
+    }
+
+    /**
+     * Find all nonterminals that depend on the start nonterminals
+     * @param start The nonterminals that have changed
+     * @param reverse Follow the readers instead of the right sides
+     * @return The start nonterminals and all dependent nonterminals
+     */
+    private IntList closure(IntList start, boolean reverse) {
+        IntList region = new IntList();
+        boolean[] marks = new boolean[nonterminals.size()];
+
+        for (int i = 0; i < start.size(); i++) {
+            addMarked(region, marks, start.get(i));
+        }
+
+        for (int i = 0; i < region.size(); i++) {
+            int n = region.get(i);
+
+            if (reverse) {
+                //The left sides of the readers depend on the first set of n
+                IntList nextProductions = readers.get(n);
+
+                for (int j = 0; j < nextProductions.size(); j++) {
+                    addMarked(region, marks, leftSides.get(nextProductions.get(j)));
+                }
+
+            } else {
+                //The right sides of the alternatives depend on the follow set of n
+                IntList nextProductions = alternatives.get(n);
+
+                for (int j = 0; j < nextProductions.size(); j++) {
+                    for (int code : rightSides.get(nextProductions.get(j))) {
+                        if (code >= 0) addMarked(region, marks, code);
+                    }
+                }
+            }
+        }
+
+        return region;
+    }
+
+    /**
+     * Clear the sets of a region
+     * @param region Nonterminals with the sets to clear
+     * @param sets First or follow sets
+     * @return The old sets of the region in the same order
+     */
+    private List<long[]> reset(IntList region, List<long[]> sets) {
+        List<long[]> oldSets = new ArrayList<>(region.size());
+
+        for (int i = 0; i < region.size(); i++) {
+            int n = region.get(i);
+            oldSets.add(sets.get(n).clone());
+            Arrays.fill(sets.get(n), 0);
+        }
+
+        return oldSets;
+    }
+
+    /**
+     * Find the nonterminals of a region with changed sets
+     * @param region Nonterminals to compare
+     * @param oldSets The old sets of the region in the same order
+     * @param sets The current first or follow sets
+     * @return Nonterminals where the set is not equal to the old set
+     */
+    private IntList changed(IntList region, List<long[]> oldSets, List<long[]> sets) {
+        IntList changed = new IntList();
+
+        for (int i = 0; i < region.size(); i++) {
+            if (!Arrays.equals(oldSets.get(i), sets.get(region.get(i)))) {
+                changed.add(region.get(i));
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Add productions to a worklist that are not queued yet
+     * @param worklist The worklist to extend
+     * @param productionIds Productions to add
+     * @return The extended worklist
+     */
+    private IntList enqueue(IntList worklist, IntList productionIds) {
+        for (int i = 0; i < productionIds.size(); i++) {
+            int p = productionIds.get(i);
+
+            if (!queued[p] && rightSides.get(p) != null) {
+                queued[p] = true;
+                worklist.add(p);
+            }
+        }
+
+        return worklist;
+    }
+
+    private void addNonterminals(IntList list, int[] rightSide) {
+        for (int code : rightSide) {
+            if (code >= 0) list.add(code);
+        }
+    }
+
+    /**
+     * Get the number of production ids, including the ids of removed productions
+     * @return Size of the production side tables
+     */
+    int productionSlots() {
+        return productions.size();
+    }
+
+    private void addMarked(IntList list, boolean[] marks, int n) {
+        if (!marks[n]) {
+            marks[n] = true;
+            list.add(n);
+        }
+    }
+
+    private int register(Production production) {
+        int leftSide = nonterminalId(production.LeftSide);
+        int[] rightSide = encode(production.RightSide);
+        int p;
+
+        if (freeIds.isEmpty()) {
+            p = productions.size();
+            productions.add(production);
+            leftSides.add(leftSide);
+            rightSides.add(rightSide);
+            predictSets.add(new long[words]);
+
+        } else {
+            //Reuse the id of a removed production, so the lists do not grow
+            p = freeIds.removeLast();
+            productions.set(p, production);
+            leftSides.set(p, leftSide);
+            rightSides.set(p, rightSide);
+            predictSets.set(p, new long[words]);
+        }
+
+        productionIds.put(production, p);
+        alternatives.get(leftSide).add(p);
+
+        for (int i = 0; i < rightSide.length; i++) {
+            if (rightSide[i] >= 0 && indexOf(rightSide, rightSide[i]) == i) {
+                readers.get(rightSide[i]).add(p);
+            }
+        }
+
+        if (queued.length < productions.size()) {
+            queued = Arrays.copyOf(queued, productions.size() * 2);
+        }
+
+        return p;
+    }
+
+    private static int indexOf(int[] codes, int code) {
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] == code) return i;
+        }
+
+        return -1;
+    }
+
+    private void unregister(int p) {
+        alternatives.get(leftSides.get(p)).remove(p);
+
+        for (int code : rightSides.get(p)) {
+            if (code >= 0) readers.get(code).remove(p);
+        }
+
+        productions.set(p, null);
+        rightSides.set(p, null);
+        predictSets.set(p, null);
+        freeIds.add(p);
+    }
+
+    private int[] encode(Word word) {
+        IntList codes = new IntList();
+
+        for (Symbol sy : word) {
+            if (sy instanceof Nonterminal) {
+                codes.add(nonterminalId(sy));
+
+            } else if (!sy.equals(ε)) {
+                codes.add(~terminalId(sy));
+            }
+        }
+
+        return codes.toArray();
+    }
+
+    private int terminalId(Symbol sy) {
+        Integer id = terminalIds.get(sy);
+
+        if (id == null) {
+            id = terminals.size();
+            terminalIds.put(sy, id);
+            terminals.add((Terminal)sy);
+
+            //Grow all bitsets when the new terminal does not fit
+            if (id >= words * 64) {
+                words *= 2;
+                grow(firstSets);
+                grow(followSets);
+                grow(predictSets);
+            }
+        }
+
+        return id;
+    }
+
+    private int nonterminalId(Symbol sy) {
+        Integer id = nonterminalIds.get(sy);
+
+        if (id == null) {
+            id = nonterminals.size();
+            nonterminalIds.put(sy, id);
+            nonterminals.add((Nonterminal)sy);
+            alternatives.add(new IntList());
+            readers.add(new IntList());
+            firstSets.add(new long[words]);
+            followSets.add(new long[words]);
+
+            if (sy.equals(StartSymbol)) {
+                BitSets.Add(followSets.get(id), EndmarkerId);
+            }
+        }
+
+        return id;
+    }
+
+    private void grow(List<long[]> sets) {
+        for (int i = 0; i < sets.size(); i++) {
+            if (sets.get(i) != null) {
+                sets.set(i, Arrays.copyOf(sets.get(i), words));
+            }
+        }
+    }
+
+    private SymbolSet liveNonterminals() {
+        SymbolSet live = new SymbolSet();
+
+        for (int n = 0; n < nonterminals.size(); n++) {
+            if (n == nonterminalId(StartSymbol) || !alternatives.get(n).isEmpty() || !readers.get(n).isEmpty()) {
+                live.add(nonterminals.get(n));
+            }
+        }
+
+        return live;
+    }
+
+    private SymbolSet toSymbolSet(long[] set) {
+        SymbolSet symbolSet = new SymbolSet();
+
+        for (int id = BitSets.NextId(set, 0); id >= 0; id = BitSets.NextId(set, id + 1)) {
+            symbolSet.add(terminals.get(id));
+        }
+
+        return symbolSet;
+    }
+
+    /**
+     * Growable list of int values without boxing
+     */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        static IntList of(int value) {
+            IntList list = new IntList();
+            list.add(value);
+            return list;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int removeLast() {
+            return values[--size];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    System.arraycopy(values, i + 1, values, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+import static generator.SymbolIndex.*;
+
+/**
+ * Table-driven LL(1) parser for streams of terminal ids. The parser does
+ * not build a tree, all derivation steps are reported to a listener.
+ * Nonterminals, terminals and the ends of the productions are stored as
+ * ints on an array stack and the right sides are pushed from precomputed
+ * arrays, so the parser will not allocate any objects per token once the
+ * stack has grown to the maximal depth. A parser is not thread-safe,
+ * but it can be reused for any number of streams.
+ */
+public class LL1Parser {
+
+    /**
+     * Receives the derivation steps of a parser in leftmost order
+     */
+    public interface Listener {
+
+        /**
+         * A production is expanded, the symbols of its right side will follow
+         * @param production Id of the production
+         */
+        default void enter(int production) {}
+
+        /**
+         * All symbols of a production are recognized
+         * @param production Id of the production
+         */
+        default void exit(int production) {}
+
+        /**
+         * A terminal of the input is matched
+         * @param terminal Id of the terminal
+         * @param position Number of tokens before this token
+         */
+        default void match(int terminal, long position) {}
+
+        /**
+         * The parser found a token that is not expected. The parse is stopped.
+         * @param terminal Id of the unexpected terminal
+         * @param position Number of tokens before this token
+         */
+        default void syntaxError(int terminal, long position) {}
+    }
+
+    /** The parse table of the grammar */
+    public final LL1Table Table;
+
+    /** Stack codes of the right sides in reverse order */
+    private final int[][] pushCodes;
+
+    /** Stack codes below this code mark the end of a production */
+    private final int exitCode;
+
+    private int[] stack = new int[64];
+
+    /**
+     * Create a parser for a context-free grammar
+     * @param grammar The grammar of the parser
+     */
+    public LL1Parser(Grammar grammar) {
+        this(new LL1Table(grammar));
+    }
+
+    /**
+     * Create a parser for a parse table. When the table has conflicts,
+     * the production with the lowest id is expanded for every cell.
+     * @param table The parse table of the parser
+     */
+    public LL1Parser(LL1Table table) {
+        SymbolIndex index = table.Index;
+        this.Table = table;
+        this.exitCode = ~index.terminalCount();
+        this.pushCodes = new int[index.productionCount()][];
+
+        for (int p = 0; p < pushCodes.length; p++) {
+            int[] rightSide = index.rightSide(p);
+            int[] codes = new int[rightSide.length + 1];
+
+            //The end of the production is popped after all right side symbols
+            codes[0] = exitCode - p;
+
+            for (int i = 0; i < rightSide.length; i++) {
+                codes[rightSide.length - i] = rightSide[i];
+            }
+
+            pushCodes[p] = codes;
+        }
+    }
+
+    /**
+     * Check if a stream of terminal ids is a word of the grammar
+     * @param tokens Supplies the terminal ids, the end of the stream is EndmarkerId
+     * @return True when the stream is a word of the grammar
+     */
+    public boolean parse(IntSupplier tokens) {
+        return parse(tokens, null);
+    }
+
+    /**
+     * Parse a stream of terminal ids and report all derivation steps
+     * @param tokens Supplies the terminal ids, the end of the stream is EndmarkerId
+     * @param listener Receives the derivation steps, may be null
+     * @return True when the stream is a word of the grammar
+     */
+    public boolean parse(IntSupplier tokens, Listener listener) {
+        int terminalCount = Table.Index.terminalCount();
+        int[] stack = this.stack;
+        int top = 0;
+
+        stack[top++] = ~EndmarkerId;
+        stack[top++] = Table.Index.startSymbol();
+
+        long position = 0;
+        int token = NextToken(tokens, terminalCount);
+
+        while (top > 0) {
+            int code = stack[--top];
+
+            if (code >= 0) {
+                //Expand the nonterminal with the production of the table
+                int p = Table.production(code, token);
+
+                if (p == LL1Table.ERROR) {
+                    if (listener != null) listener.syntaxError(token, position);
+                    this.stack = stack;
+                    return false;
+                }
+
+                int[] codes = pushCodes[p];
+
+                if (top + codes.length > stack.length) {
+                    stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + codes.length));
+                }
+
+                System.arraycopy(codes, 0, stack, top, codes.length);
+                top += codes.length;
+
+                if (listener != null) listener.enter(p);
+
+            } else if (code > exitCode) {
+                if (~code != token) {
+                    if (listener != null) listener.syntaxError(token, position);
+                    this.stack = stack;
+                    return false;
+                }
+
+                //The end-marker is the last token of the stream
+                if (token != EndmarkerId) {
+                    if (listener != null) listener.match(token, position);
+                    position++;
+                    token = NextToken(tokens, terminalCount);
+                }
+
+            } else if (listener != null) {
+                listener.exit(exitCode - code);
+            }
+        }
+
+        this.stack = stack;
+        return true;
+    }
+
+    private static int NextToken(IntSupplier tokens, int terminalCount) {
+        int token = tokens.getAsInt();
+
+        if (token <= εId || token >= terminalCount) {
+            throw new IllegalArgumentException("Invalid terminal id " + token);
+        }
+
+        return token;
+    }
+}
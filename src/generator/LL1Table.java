@@ -0,0 +1,195 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parse table of a LL(1) parser built from the predict sets of a grammar.
+ * The table is a dense matrix with a row for every nonterminal id and a
+ * column for every terminal id of a symbol index. Every cell contains the
+ * id of the production to expand or -1 for a syntax error. When more than
+ * one production is predicted for a cell, the production with the lowest
+ * id is stored and the cell is reported as a conflict.
+ */
+public class LL1Table {
+
+    /** Cell value for a syntax error */
+    public static final int ERROR = -1;
+
+    /** The symbol index of the row and column ids */
+    public final SymbolIndex Index;
+
+    private final int[][] table;
+    private final List<Conflict> conflicts = new ArrayList<>();
+    private final Map<Integer, Conflict> conflictCells = new HashMap<>();
+
+    /**
+     * Create the parse table for a context-free grammar
+     * @param grammar The grammar for the parse table
+     */
+    public LL1Table(Grammar grammar) {
+        this(new SymbolIndex(grammar));
+    }
+
+    /**
+     * Create the parse table for an indexed grammar
+     * @param index The indexed grammar for the parse table
+     */
+    public LL1Table(SymbolIndex index) {
+        this(index, Predict(index));
+    }
+
+    /**
+     * Create the parse table from precomputed predict sets
+     * @param index The indexed grammar for the parse table
+     * @param predictSets Bitsets with terminal ids indexed by the production ids
+     */
+    public LL1Table(SymbolIndex index, long[][] predictSets) {
+        this.Index = index;
+        this.table = new int[index.nonterminalCount()][index.terminalCount()];
+
+        for (int[] row : table) {
+            Arrays.fill(row, ERROR);
+        }
+
+        for (int p = 0; p < index.productionCount(); p++) {
+            int[] row = table[index.leftSide(p)];
+            long[] set = predictSets[p];
+
+            for (int t = BitSets.NextId(set, 0); t >= 0; t = BitSets.NextId(set, t + 1)) {
+                if (row[t] == ERROR) {
+                    row[t] = p;
+                } else {
+                    addConflict(index.leftSide(p), t, row[t], p);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the production to expand for a nonterminal and a lookahead terminal
+     * @param nonterminal Id of the nonterminal on top of the parser stack
+     * @param terminal Id of the lookahead terminal
+     * @return Id of the production or ERROR
+     */
+    public int production(int nonterminal, int terminal) {
+        return table[nonterminal][terminal];
+    }
+
+    /**
+     * Get the row of a nonterminal. The row is shared
+     * with the table and must not be modified.
+     * @param nonterminal Id of the nonterminal
+     * @return Production ids indexed by the terminal ids
+     */
+    public int[] row(int nonterminal) {
+        return table[nonterminal];
+    }
+
+    /**
+     * Check if the grammar is LL(1)
+     * @return True when no cell has a conflict
+     */
+    public boolean isLL1() {
+        return conflicts.isEmpty();
+    }
+
+    /**
+     * Get all cells with more than one predicted production
+     * @return Unmodifiable list with one conflict per cell
+     */
+    public List<Conflict> conflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        for (int n = 0; n < table.length; n++) {
+            sb.append(Index.nonterminal(n)).append(":");
+
+            for (int t = 0; t < table[n].length; t++) {
+                if (table[n][t] != ERROR) {
+                    sb.append(" ").append(Index.terminal(t)).append("=").append(table[n][t]);
+                }
+            }
+
+            sb.append("\n");
+        }
+
+        return sb.toString();
+    }
+
+    private void addConflict(int nonterminal, int terminal, int first, int p) {
+        //All productions of a cell are collected in the same conflict
+        int cell = nonterminal * Index.terminalCount() + terminal;
+        Conflict conflict = conflictCells.get(cell);
+
+        if (conflict == null) {
+            conflict = new Conflict(nonterminal, terminal);
+            conflict.productions.add(Index.production(first));
+            conflictCells.put(cell, conflict);
+            conflicts.add(conflict);
+        }
+
+        conflict.productions.add(Index.production(p));
+    }
+
+    private static long[][] Predict(SymbolIndex index) {
+        long[][] firstSets = BitSetGenerator.First(index);
+        return BitSetGenerator.Predict(index, firstSets, BitSetGenerator.Follow(index, firstSets));
+    }
+
+    /**
+     * A cell of the table with more than one predicted production
+     */
+    public class Conflict {
+        private final int nonterminal;
+        private final int terminal;
+        private final List<Production> productions = new ArrayList<>();
+
+        private Conflict(int nonterminal, int terminal) {
+            this.nonterminal = nonterminal;
+            this.terminal = terminal;
+        }
+
+        /**
+         * Get the nonterminal of the conflict cell
+         * @return The row symbol
+         */
+        public Nonterminal nonterminal() {
+            return Index.nonterminal(nonterminal);
+        }
+
+        /**
+         * Get the lookahead terminal of the conflict cell
+         * @return The column symbol
+         */
+        public Terminal terminal() {
+            return Index.terminal(terminal);
+        }
+
+        /**
+         * Get all productions that are predicted for the cell
+         * @return Productions in ascending order of their ids
+         */
+        public List<Production> productions() {
+            return Collections.unmodifiableList(productions);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + nonterminal() + ", " + terminal() + "] " + productions;
+        }
+    }
+}
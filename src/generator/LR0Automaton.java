@@ -0,0 +1,360 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The LR(0) automaton of a grammar with the item sets as states.
+ * An item is a production with a dot position and every item has a
+ * dense id, so an item set is stored as a sorted int array. Only the
+ * kernel items of a state are stored, the kernels are interned with a
+ * hash map to find existing states. The grammar is augmented with the
+ * production S' -> S, which has the id productionCount() of the index.
+ * The start state is 0, the accept state is the goto of S from 0.
+ */
+public class LR0Automaton {
+
+    /** The symbol index of the grammar */
+    public final SymbolIndex Index;
+
+    /** Symbol code of an item with the dot at the end */
+    private static final int COMPLETE = Integer.MIN_VALUE;
+
+    /** Id of the first item of every production */
+    private final int[] itemBase;
+    private final int[] itemProductions;
+    private final int[] itemNext;
+
+    private int[][] kernels = new int[64][];
+    private int[][] symbols = new int[64][];
+    private int[][] gotos = new int[64][];
+    private int[][] shifts = new int[64][];
+    private int[][] reductions = new int[64][];
+    private int stateCount;
+
+    /**
+     * Create the LR(0) automaton of a context-free grammar
+     * @param grammar The grammar for the automaton
+     */
+    public LR0Automaton(Grammar grammar) {
+        this(new SymbolIndex(grammar));
+    }
+
+    /**
+     * Create the LR(0) automaton of an indexed grammar
+     * @param index The indexed grammar for the automaton
+     */
+    public LR0Automaton(SymbolIndex index) {
+        this.Index = index;
+        int productionCount = index.productionCount();
+
+        //Assign the item ids, the augmented production is the last one
+        itemBase = new int[productionCount + 2];
+
+        for (int p = 0; p <= productionCount; p++) {
+            itemBase[p + 1] = itemBase[p] + rightSide(p).length + 1;
+        }
+
+        int itemCount = itemBase[productionCount + 1];
+        itemProductions = new int[itemCount];
+        itemNext = new int[itemCount];
+
+        for (int p = 0; p <= productionCount; p++) {
+            int[] rightSide = rightSide(p);
+
+            for (int dot = 0; dot <= rightSide.length; dot++) {
+                itemProductions[itemBase[p] + dot] = p;
+                itemNext[itemBase[p] + dot] = (dot < rightSide.length) ? rightSide[dot] : COMPLETE;
+            }
+        }
+
+        build();
+    }
+
+    /**
+     * Get the number of states
+     * @return Number of item sets
+     */
+    public int stateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Get the state after reading the start symbol in the start state
+     * @return Id of the state with the completed item S' -> S
+     */
+    public int acceptState() {
+        return gotos[0][Index.startSymbol()];
+    }
+
+    /**
+     * Get the kernel items of a state. The array is shared
+     * with the automaton and must not be modified.
+     * @param state Id of the state
+     * @return Sorted item ids
+     */
+    public int[] kernel(int state) {
+        return kernels[state];
+    }
+
+    /**
+     * Get the production of an item
+     * @param item Id of the item
+     * @return Id of the production, productionCount() for S' -> S
+     */
+    public int itemProduction(int item) {
+        return itemProductions[item];
+    }
+
+    /**
+     * Get the dot position of an item
+     * @param item Id of the item
+     * @return Number of right side symbols before the dot
+     */
+    public int itemDot(int item) {
+        return item - itemBase[itemProductions[item]];
+    }
+
+    /**
+     * Get the symbols with a transition from a state. The array
+     * is shared with the automaton and must not be modified.
+     * @param state Id of the state
+     * @return Encoded symbols in the order of the transitions
+     */
+    public int[] symbols(int state) {
+        return symbols[state];
+    }
+
+    /**
+     * Get the successor of a state for a nonterminal
+     * @param state Id of the state
+     * @param nonterminal Id of the nonterminal
+     * @return Id of the successor or -1
+     */
+    public int goTo(int state, int nonterminal) {
+        return gotos[state][nonterminal];
+    }
+
+    /**
+     * Get the successor of a state for a terminal
+     * @param state Id of the state
+     * @param terminal Id of the terminal
+     * @return Id of the successor or -1
+     */
+    public int shift(int state, int terminal) {
+        return shifts[state][terminal];
+    }
+
+    /**
+     * Get the successor of a state for an encoded symbol
+     * @param state Id of the state
+     * @param code Nonterminal id or complement of a terminal id
+     * @return Id of the successor or -1
+     */
+    public int transition(int state, int code) {
+        return (code >= 0) ? gotos[state][code] : shifts[state][~code];
+    }
+
+    /**
+     * Get the productions of all completed items of a state.
+     * The augmented production is not part of the result.
+     * @param state Id of the state
+     * @return Ids of the productions to reduce
+     */
+    public int[] reductions(int state) {
+        return reductions[state];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        for (int state = 0; state < stateCount; state++) {
+            sb.append(state).append(":");
+
+            for (int item : kernels[state]) {
+                sb.append(" [").append(itemString(item)).append("]");
+            }
+
+            sb.append("\n");
+        }
+
+        return sb.toString();
+    }
+
+    private String itemString(int item) {
+        int p = itemProductions[item];
+        int dot = itemDot(item);
+        int[] rightSide = rightSide(p);
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(p < Index.productionCount() ? Index.nonterminal(Index.leftSide(p)) + " ->" : "S' ->");
+
+        for (int i = 0; i <= rightSide.length; i++) {
+            if (i == dot) sb.append(" .");
+            if (i == rightSide.length) break;
+
+            int code = rightSide[i];
+            sb.append(" ").append(code >= 0 ? Index.nonterminal(code) : Index.terminal(~code));
+        }
+
+        return sb.toString();
+    }
+
+    private int[] rightSide(int p) {
+        return (p < Index.productionCount()) ? Index.rightSide(p) : new int[]{ Index.startSymbol() };
+    }
+
+    /**
+     * Create all states that are reachable from the start state
+     */
+    private void build() {
+        int nonterminalCount = Index.nonterminalCount();
+        int terminalCount = Index.terminalCount();
+        Map<Kernel, Integer> states = new HashMap<>();
+
+        //Items of the closure and the advanced items grouped by their symbol
+        int[] closure = new int[16];
+        int[][] buckets = new int[nonterminalCount + terminalCount][];
+        int[] bucketSizes = new int[buckets.length];
+        int[] touched = new int[buckets.length];
+        int[] closed = new int[nonterminalCount];
+
+        int[] startKernel = new int[]{ itemBase[Index.productionCount()] };
+        states.put(new Kernel(startKernel), addState(startKernel));
+
+        for (int state = 0; state < stateCount; state++) {
+            int[] kernel = kernels[state];
+            int closureSize = 0;
+
+            for (int item : kernel) {
+                if (closureSize == closure.length) closure = Arrays.copyOf(closure, closureSize * 2);
+                closure[closureSize++] = item;
+            }
+
+            //Add the first items of all alternatives of the nonterminals after the dot
+            for (int i = 0; i < closureSize; i++) {
+                int code = itemNext[closure[i]];
+
+                if (code >= 0 && closed[code] != state + 1) {
+                    closed[code] = state + 1;
+
+                    for (int p : Index.alternatives(code)) {
+                        if (closureSize == closure.length) closure = Arrays.copyOf(closure, closureSize * 2);
+                        closure[closureSize++] = itemBase[p];
+                    }
+                }
+            }
+
+            int touchedCount = 0;
+            int reductionCount = 0;
+
+            for (int i = 0; i < closureSize; i++) {
+                int item = closure[i];
+                int code = itemNext[item];
+
+                if (code == COMPLETE) {
+                    if (itemProductions[item] < Index.productionCount()) {
+                        closure[reductionCount++] = itemProductions[item];
+                    }
+                    continue;
+                }
+
+                int bucket = (code >= 0) ? code : nonterminalCount + ~code;
+
+                if (bucketSizes[bucket] == 0) {
+                    touched[touchedCount++] = bucket;
+
+                    if (buckets[bucket] == null) buckets[bucket] = new int[4];
+                }
+
+                if (bucketSizes[bucket] == buckets[bucket].length) {
+                    buckets[bucket] = Arrays.copyOf(buckets[bucket], bucketSizes[bucket] * 2);
+                }
+
+                buckets[bucket][bucketSizes[bucket]++] = item + 1;
+            }
+
+            //Completed items are moved to the front of the closure buffer
+            reductions[state] = Arrays.copyOf(closure, reductionCount);
+            symbols[state] = new int[touchedCount];
+
+            for (int i = 0; i < touchedCount; i++) {
+                int bucket = touched[i];
+                int[] successor = Arrays.copyOf(buckets[bucket], bucketSizes[bucket]);
+                bucketSizes[bucket] = 0;
+                Arrays.sort(successor);
+
+                Kernel key = new Kernel(successor);
+                Integer target = states.get(key);
+
+                if (target == null) {
+                    target = addState(successor);
+                    states.put(key, target);
+                }
+
+                if (bucket < nonterminalCount) {
+                    symbols[state][i] = bucket;
+                    gotos[state][bucket] = target;
+                } else {
+                    symbols[state][i] = ~(bucket - nonterminalCount);
+                    shifts[state][bucket - nonterminalCount] = target;
+                }
+            }
+        }
+
+        kernels = Arrays.copyOf(kernels, stateCount);
+        symbols = Arrays.copyOf(symbols, stateCount);
+        gotos = Arrays.copyOf(gotos, stateCount);
+        shifts = Arrays.copyOf(shifts, stateCount);
+        reductions = Arrays.copyOf(reductions, stateCount);
+    }
+
+    private int addState(int[] kernel) {
+        if (stateCount == kernels.length) {
+            int capacity = stateCount * 2;
+            kernels = Arrays.copyOf(kernels, capacity);
+            symbols = Arrays.copyOf(symbols, capacity);
+            gotos = Arrays.copyOf(gotos, capacity);
+            shifts = Arrays.copyOf(shifts, capacity);
+            reductions = Arrays.copyOf(reductions, capacity);
+        }
+
+        kernels[stateCount] = kernel;
+        gotos[stateCount] = new int[Index.nonterminalCount()];
+        shifts[stateCount] = new int[Index.terminalCount()];
+        Arrays.fill(gotos[stateCount], -1);
+        Arrays.fill(shifts[stateCount], -1);
+
+        return stateCount++;
+    }
+
+    /**
+     * Interned key of the kernel items of a state
+     */
+    private static final class Kernel {
+        private final int[] items;
+        private final int hash;
+
+        Kernel(int[] items) {
+            this.items = items;
+            this.hash = Arrays.hashCode(items);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return (o instanceof Kernel) && Arrays.equals(items, ((Kernel)o).items);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
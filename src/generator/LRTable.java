@@ -0,0 +1,394 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static generator.SymbolIndex.*;
+
+/**
+ * Action and goto tables of a LR parser built from a LR(0) automaton.
+ * The action table has a row for every state and a column for every
+ * terminal id. An action is encoded as one int: ERROR is 0, a shift to
+ * state s is s + 1, a reduce of production p is ~p and ACCEPT is the
+ * minimal int. The goto table contains the successor state of every
+ * state and nonterminal id or -1. Conflicts are resolved in favor of
+ * the shift and the reduce of the production with the lowest id.
+ */
+public class LRTable {
+
+    /** Action of a syntax error */
+    public static final int ERROR = 0;
+
+    /** Action for the end-marker after the start symbol */
+    public static final int ACCEPT = Integer.MIN_VALUE;
+
+    /** The automaton with the states of the table */
+    public final LR0Automaton Automaton;
+
+    private final int[][] actions;
+    private final List<Conflict> conflicts = new ArrayList<>();
+    private final Map<Integer, Conflict> conflictCells = new HashMap<>();
+
+    /**
+     * Create the SLR(1) table of a context-free grammar
+     * @param grammar The grammar for the table
+     * @return Table with the follow sets as reduce lookaheads
+     */
+    public static LRTable SLR(Grammar grammar) {
+        return SLR(new LR0Automaton(grammar));
+    }
+
+    /**
+     * Create the SLR(1) table of a LR(0) automaton. A production is
+     * reduced for all terminals of the follow set of its left side.
+     * @param automaton The automaton for the table
+     * @return Table with the follow sets as reduce lookaheads
+     */
+    public static LRTable SLR(LR0Automaton automaton) {
+        SymbolIndex index = automaton.Index;
+        long[][] followSets = BitSetGenerator.Follow(index, BitSetGenerator.First(index));
+        LRTable table = new LRTable(automaton);
+
+        for (int state = 0; state < automaton.stateCount(); state++) {
+            for (int p : automaton.reductions(state)) {
+                table.addReduce(state, p, followSets[index.leftSide(p)]);
+            }
+        }
+
+        return table;
+    }
+
+    /**
+     * Create the LALR(1) table of a context-free grammar
+     * @param grammar The grammar for the table
+     * @return Table with the LALR(1) lookaheads
+     */
+    public static LRTable LALR(Grammar grammar) {
+        return LALR(new LR0Automaton(grammar));
+    }
+
+    /**
+     * Create the LALR(1) table of a LR(0) automaton. The lookaheads are
+     * computed with the relations of DeRemer and Pennello over the
+     * nonterminal transitions of the automaton: the terminals that can be
+     * read after a transition are propagated along the reads relation, the
+     * results are propagated along the includes relation and every reduce
+     * gets the follow sets of the transitions of its lookback relation.
+     * @param automaton The automaton for the table
+     * @return Table with the LALR(1) lookaheads
+     */
+    public static LRTable LALR(LR0Automaton automaton) {
+        SymbolIndex index = automaton.Index;
+        NullableSet nullable = index.Grammar.nullable();
+        int stateCount = automaton.stateCount();
+
+        //Assign ids to all nonterminal transitions
+        int[][] transitionIds = new int[stateCount][];
+        int transitionCount = 0;
+
+        for (int state = 0; state < stateCount; state++) {
+            transitionIds[state] = new int[index.nonterminalCount()];
+            Arrays.fill(transitionIds[state], -1);
+
+            for (int code : automaton.symbols(state)) {
+                if (code >= 0) transitionIds[state][code] = transitionCount++;
+            }
+        }
+
+        boolean[] nullableSymbols = new boolean[index.nonterminalCount()];
+
+        for (int n = 0; n < nullableSymbols.length; n++) {
+            nullableSymbols[n] = nullable.isNullable(index.nonterminal(n));
+        }
+
+        //Directly read terminals and the reads relation
+        long[][] sets = new long[transitionCount][];
+        Digraph.RelationBuilder reads = new Digraph.RelationBuilder(transitionCount);
+
+        for (int state = 0; state < stateCount; state++) {
+            for (int code : automaton.symbols(state)) {
+                if (code < 0) continue;
+
+                int x = transitionIds[state][code];
+                int target = automaton.goTo(state, code);
+                sets[x] = index.createTerminalSet();
+
+                for (int next : automaton.symbols(target)) {
+                    if (next < 0) {
+                        BitSets.Add(sets[x], ~next);
+                    } else if (nullableSymbols[next]) {
+                        reads.add(x, transitionIds[target][next]);
+                    }
+                }
+            }
+        }
+
+        //The start symbol is followed by the end-marker
+        BitSets.Add(sets[transitionIds[0][index.startSymbol()]], EndmarkerId);
+        Digraph.Traverse(reads.build(), sets);
+
+        //Walk along all right sides to find the includes and lookback relations
+        Digraph.RelationBuilder includes = new Digraph.RelationBuilder(transitionCount);
+        int[] lookback = new int[16];
+        int lookbackSize = 0;
+
+        for (int state = 0; state < stateCount; state++) {
+            for (int code : automaton.symbols(state)) {
+                if (code < 0) continue;
+
+                int y = transitionIds[state][code];
+
+                for (int p : index.alternatives(code)) {
+                    int[] rightSide = index.rightSide(p);
+                    int suffixBegin = rightSide.length;
+                    int current = state;
+
+                    //All symbols from this index to the end are nullable
+                    while (suffixBegin > 0 && rightSide[suffixBegin - 1] >= 0 && nullableSymbols[rightSide[suffixBegin - 1]]) {
+                        suffixBegin--;
+                    }
+
+                    for (int i = 0; i < rightSide.length; i++) {
+                        int symbol = rightSide[i];
+
+                        if (symbol >= 0 && i + 1 >= suffixBegin) {
+                            includes.add(transitionIds[current][symbol], y);
+                        }
+
+                        current = automaton.transition(current, symbol);
+                    }
+
+                    if (lookbackSize + 3 > lookback.length) {
+                        lookback = Arrays.copyOf(lookback, lookback.length * 2);
+                    }
+
+                    lookback[lookbackSize++] = current;
+                    lookback[lookbackSize++] = p;
+                    lookback[lookbackSize++] = y;
+                }
+            }
+        }
+
+        Digraph.Traverse(includes.build(), sets);
+        LRTable table = new LRTable(automaton);
+
+        for (int i = 0; i < lookbackSize; i += 3) {
+            table.addReduce(lookback[i], lookback[i + 1], sets[lookback[i + 2]]);
+        }
+
+        return table;
+    }
+
+    /**
+     * Create the table with all shift, goto and accept actions
+     * @param automaton The automaton for the table
+     */
+    private LRTable(LR0Automaton automaton) {
+        this.Automaton = automaton;
+        this.actions = new int[automaton.stateCount()][automaton.Index.terminalCount()];
+
+        for (int state = 0; state < actions.length; state++) {
+            for (int code : automaton.symbols(state)) {
+                if (code < 0) {
+                    actions[state][~code] = automaton.shift(state, ~code) + 1;
+                }
+            }
+        }
+
+        actions[automaton.acceptState()][EndmarkerId] = ACCEPT;
+    }
+
+    /**
+     * Get the action of a state for a lookahead terminal
+     * @param state Id of the state on top of the parser stack
+     * @param terminal Id of the lookahead terminal
+     * @return The encoded action
+     */
+    public int action(int state, int terminal) {
+        return actions[state][terminal];
+    }
+
+    /**
+     * Get the successor of a state after a reduce
+     * @param state Id of the state on top of the parser stack
+     * @param nonterminal Id of the reduced nonterminal
+     * @return Id of the successor or -1
+     */
+    public int goTo(int state, int nonterminal) {
+        return Automaton.goTo(state, nonterminal);
+    }
+
+    /**
+     * Get the number of states
+     * @return Number of rows of the tables
+     */
+    public int stateCount() {
+        return actions.length;
+    }
+
+    /**
+     * Check if the table has no conflicts
+     * @return True when every cell has at most one action
+     */
+    public boolean isDeterministic() {
+        return conflicts.isEmpty();
+    }
+
+    /**
+     * Get all cells with more than one action
+     * @return Unmodifiable list with one conflict per cell
+     */
+    public List<Conflict> conflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Check if an action is a shift
+     * @param action The encoded action
+     * @return True for a shift action
+     */
+    public static boolean IsShift(int action) {
+        return action > 0;
+    }
+
+    /**
+     * Check if an action is a reduce
+     * @param action The encoded action
+     * @return True for a reduce action
+     */
+    public static boolean IsReduce(int action) {
+        return action < 0 && action != ACCEPT;
+    }
+
+    /**
+     * Get the target state of a shift action
+     * @param action The encoded shift action
+     * @return Id of the state to push
+     */
+    public static int ShiftState(int action) {
+        return action - 1;
+    }
+
+    /**
+     * Get the production of a reduce action
+     * @param action The encoded reduce action
+     * @return Id of the production to reduce
+     */
+    public static int ReduceProduction(int action) {
+        return ~action;
+    }
+
+    /**
+     * Add the reduce of a production for all terminals of a lookahead set
+     * @param state Id of the state with the completed item
+     * @param p Id of the production
+     * @param lookaheads Bitset with the terminal ids
+     */
+    private void addReduce(int state, int p, long[] lookaheads) {
+        int[] row = actions[state];
+
+        for (int t = BitSets.NextId(lookaheads, 0); t >= 0; t = BitSets.NextId(lookaheads, t + 1)) {
+            int action = row[t];
+
+            if (action == ERROR) {
+                row[t] = ~p;
+
+            } else if (action != ~p) {
+                addConflict(state, t, action, ~p);
+
+                //Prefer the shift and the production with the lowest id
+                if (IsReduce(action) && ~action > p) {
+                    row[t] = ~p;
+                }
+            }
+        }
+    }
+
+    private void addConflict(int state, int terminal, int action, int other) {
+        int cell = state * Automaton.Index.terminalCount() + terminal;
+        Conflict conflict = conflictCells.get(cell);
+
+        if (conflict == null) {
+            conflict = new Conflict(state, terminal);
+            conflict.actions.add(action);
+            conflictCells.put(cell, conflict);
+            conflicts.add(conflict);
+        }
+
+        if (!conflict.actions.contains(other)) {
+            conflict.actions.add(other);
+        }
+    }
+
+    /**
+     * A cell of the action table with more than one action
+     */
+    public class Conflict {
+        private final int state;
+        private final int terminal;
+        private final List<Integer> actions = new ArrayList<>();
+
+        private Conflict(int state, int terminal) {
+            this.state = state;
+            this.terminal = terminal;
+        }
+
+        /**
+         * Get the state of the conflict cell
+         * @return Id of the state
+         */
+        public int state() {
+            return state;
+        }
+
+        /**
+         * Get the lookahead terminal of the conflict cell
+         * @return The column symbol
+         */
+        public Terminal terminal() {
+            return Automaton.Index.terminal(terminal);
+        }
+
+        /**
+         * Check if the conflict is between a shift and a reduce
+         * @return True when one of the actions is a shift
+         */
+        public boolean isShiftReduce() {
+            return actions.stream().anyMatch(LRTable::IsShift);
+        }
+
+        /**
+         * Get all actions of the cell
+         * @return Encoded actions in the order they were added
+         */
+        public List<Integer> actions() {
+            return Collections.unmodifiableList(actions);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[" + state + ", " + terminal() + "]");
+
+            for (int action : actions) {
+                if (IsShift(action)) {
+                    sb.append(" shift ").append(ShiftState(action));
+                } else if (IsReduce(action)) {
+                    sb.append(" reduce ").append(Automaton.Index.production(ReduceProduction(action)));
+                } else {
+                    sb.append(" accept");
+                }
+            }
+
+            return sb.toString();
+        }
+    }
+}
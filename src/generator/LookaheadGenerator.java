@@ -0,0 +1,220 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static generator.SymbolIndex.*;
+
+/**
+ * Contains all methods used for the generation of the first, follow
+ * and predict sets with k symbols of lookahead. The sets contain
+ * terminal strings with at most k terminals. Shorter strings are only
+ * possible when the end of a word or the end-marker is reached.
+ * All strings are packed into longs of a lookahead set, so at most
+ * four symbols of lookahead are supported.
+ */
+public class LookaheadGenerator {
+
+    /**
+     * Generate the first sets with k symbols of lookahead
+     * @param grammar The grammar for the generation
+     * @param k Number of lookahead symbols
+     * @return Map with all nonterminals as keys and terminal strings as values
+     */
+    public static Map<Symbol, Set<Word>> First(Grammar grammar, int k) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        return ToWords(index, First(index, k));
+    }
+
+    /**
+     * Generate the follow sets with k symbols of lookahead
+     * @param grammar The grammar for the generation
+     * @param k Number of lookahead symbols
+     * @return Map with all nonterminals as keys and terminal strings as values
+     */
+    public static Map<Symbol, Set<Word>> Follow(Grammar grammar, int k) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        return ToWords(index, Follow(index, First(index, k), k));
+    }
+
+    /**
+     * Generate the predict sets with k symbols of lookahead
+     * @param grammar The grammar for the generation
+     * @param k Number of lookahead symbols
+     * @return Map with all productions as keys and terminal strings as values
+     */
+    public static Map<Production, Set<Word>> Predict(Grammar grammar, int k) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        LookaheadSet[] firstSets = First(index, k);
+        LookaheadSet[] predictSets = Predict(index, firstSets, Follow(index, firstSets, k), k);
+        Map<Production, Set<Word>> words = new HashMap<>();
+
+        for (int p = 0; p < predictSets.length; p++) {
+            words.put(index.production(p), predictSets[p].toWords(index));
+        }
+
+        return words;
+    }
+
+    /**
+     * Generate the first sets of all nonterminals with k symbols of lookahead
+     * @param index The indexed grammar for the generation
+     * @param k Number of lookahead symbols
+     * @return Lookahead sets indexed by the nonterminal ids
+     */
+    public static LookaheadSet[] First(SymbolIndex index, int k) {
+        CheckLookahead(index, k);
+        LookaheadSet[] firstSets = new LookaheadSet[index.nonterminalCount()];
+
+        //Initialize with empty sets
+        for (int n = 0; n < firstSets.length; n++) {
+            firstSets[n] = new LookaheadSet();
+        }
+
+        boolean setChanged;
+
+        do {
+            setChanged = false;
+
+            for (int p = 0; p < index.productionCount(); p++) {
+                LookaheadSet set = First(index, firstSets, index.rightSide(p), 0, k);
+                setChanged |= firstSets[index.leftSide(p)].addAll(set);
+            }
+
+        } while (setChanged);
+        return firstSets;
+    }
+
+    /**
+     * Generate the follow sets of all nonterminals with
+     * k symbols of lookahead and the precomputed first sets
+     * @param index The indexed grammar for the generation
+     * @param firstSets The precomputed first sets
+     * @param k Number of lookahead symbols
+     * @return Lookahead sets indexed by the nonterminal ids
+     */
+    public static LookaheadSet[] Follow(SymbolIndex index, LookaheadSet[] firstSets, int k) {
+        CheckLookahead(index, k);
+        LookaheadSet[] followSets = new LookaheadSet[index.nonterminalCount()];
+
+        //Initialize with empty sets
+        for (int n = 0; n < followSets.length; n++) {
+            followSets[n] = new LookaheadSet();
+        }
+
+        //Add the end-marker to the start symbol
+        followSets[index.startSymbol()].add(LookaheadSet.Of(EndmarkerId));
+
+        //The first sets of the suffixes do not change during the iteration
+        LookaheadSet[][] suffixSets = new LookaheadSet[index.productionCount()][];
+
+        for (int p = 0; p < suffixSets.length; p++) {
+            int[] rightSide = index.rightSide(p);
+            suffixSets[p] = new LookaheadSet[rightSide.length];
+
+            for (int i = 0; i < rightSide.length; i++) {
+                if (rightSide[i] >= 0) {
+                    suffixSets[p][i] = First(index, firstSets, rightSide, i + 1, k);
+                }
+            }
+        }
+
+        boolean setChanged;
+
+        do {
+            setChanged = false;
+
+            for (int p = 0; p < index.productionCount(); p++) {
+                int[] rightSide = index.rightSide(p);
+                LookaheadSet leftFollow = followSets[index.leftSide(p)];
+
+                for (int i = 0; i < rightSide.length; i++) {
+                    if (rightSide[i] < 0) continue;
+
+                    LookaheadSet set = LookaheadSet.Concat(suffixSets[p][i], leftFollow, k);
+                    setChanged |= followSets[rightSide[i]].addAll(set);
+                }
+            }
+
+        } while (setChanged);
+        return followSets;
+    }
+
+    /**
+     * Generate the predict sets of all productions with k symbols
+     * of lookahead and the precomputed first and follow sets
+     * @param index The indexed grammar for the generation
+     * @param firstSets The precomputed first sets
+     * @param followSets The precomputed follow sets
+     * @param k Number of lookahead symbols
+     * @return Lookahead sets indexed by the production ids
+     */
+    public static LookaheadSet[] Predict(SymbolIndex index, LookaheadSet[] firstSets, LookaheadSet[] followSets, int k) {
+        CheckLookahead(index, k);
+        LookaheadSet[] predictSets = new LookaheadSet[index.productionCount()];
+
+        for (int p = 0; p < predictSets.length; p++) {
+            LookaheadSet set = First(index, firstSets, index.rightSide(p), 0, k);
+            predictSets[p] = LookaheadSet.Concat(set, followSets[index.leftSide(p)], k);
+        }
+
+        return predictSets;
+    }
+
+    /**
+     * Generate the first set of a suffix of an encoded word
+     * @param index The indexed grammar
+     * @param firstSets The current first sets
+     * @param codes The encoded word
+     * @param beginIndex Skip this number of symbols
+     * @param k Number of lookahead symbols
+     * @return Set with the first strings of the suffix
+     */
+    private static LookaheadSet First(SymbolIndex index, LookaheadSet[] firstSets, int[] codes, int beginIndex, int k) {
+        LookaheadSet set = new LookaheadSet(0);
+
+        for (int i = beginIndex; i < codes.length && !LookaheadSet.IsComplete(set, k); i++) {
+            int code = codes[i];
+
+            if (code < 0) {
+                set = LookaheadSet.Concat(set, new LookaheadSet(LookaheadSet.Of(~code)), k);
+            } else {
+                set = LookaheadSet.Concat(set, firstSets[code], k);
+            }
+        }
+
+        return set;
+    }
+
+    /**
+     * Convert the lookahead sets of all nonterminals into words
+     * @param index The symbol index of the terminal ids
+     * @param sets Lookahead sets indexed by the nonterminal ids
+     * @return Map with all nonterminals as keys and terminal strings as values
+     */
+    private static Map<Symbol, Set<Word>> ToWords(SymbolIndex index, LookaheadSet[] sets) {
+        Map<Symbol, Set<Word>> words = new HashMap<>();
+
+        for (int n = 0; n < sets.length; n++) {
+            words.put(index.nonterminal(n), sets[n].toWords(index));
+        }
+
+        return words;
+    }
+
+    private static void CheckLookahead(SymbolIndex index, int k) {
+        if (k < 1 || k > LookaheadSet.MAX_LENGTH) {
+            throw new IllegalArgumentException("Lookahead must be between 1 and " + LookaheadSet.MAX_LENGTH);
+        }
+
+        if (index.terminalCount() > LookaheadSet.MAX_TERMINAL_ID) {
+            throw new IllegalArgumentException("Too many terminals for packed lookahead strings");
+        }
+    }
+}
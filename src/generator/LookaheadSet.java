@@ -0,0 +1,356 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static generator.Singletons.*;
+
+/**
+ * Set (no duplicates) to store terminal strings of a limited length.
+ * Every string is packed into one long: each terminal id uses 16 bits
+ * and the first terminal is stored in the highest bits. Unused positions
+ * are zero, so the empty string is stored as 0 and the terminal id of
+ * the empty word is never part of a string. The packed strings are kept
+ * in an open addressing hash table without any boxing.
+ */
+public class LookaheadSet {
+
+    /** The maximal length of the stored strings */
+    public static final int MAX_LENGTH = 4;
+
+    /** The maximal terminal id that can be stored */
+    public static final int MAX_TERMINAL_ID = 0xFFFF;
+
+    /** Number of bits for every terminal of a string */
+    private static final int SYMBOL_BITS = 16;
+
+    /** Hash table of the packed strings, 0 marks an empty slot */
+    private long[] table = new long[8];
+
+    /** The empty string can not be stored in the table */
+    private boolean containsEmpty;
+
+    private int size;
+
+    /**
+     * Create a new set of terminal strings
+     * @param strings Add these packed strings to the set
+     */
+    public LookaheadSet(long... strings) {
+        for (long string : strings) {
+            add(string);
+        }
+    }
+
+    /**
+     * Get the number of strings in the set
+     * @return Number of stored strings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the set contains no strings
+     * @return True when no string is stored
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Check if a string is in the set
+     * @param string The packed string
+     * @return True when the string is stored
+     */
+    public boolean contains(long string) {
+        if (string == 0) {
+            return containsEmpty;
+        }
+
+        int mask = table.length - 1;
+
+        for (int slot = slot(string, mask); table[slot] != 0; slot = (slot + 1) & mask) {
+            if (table[slot] == string) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Add a string to the set
+     * @param string The packed string
+     * @return True when the set has changed
+     */
+    public boolean add(long string) {
+        if (string == 0) {
+            if (containsEmpty) return false;
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        //Keep the load factor below one half
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+
+        int mask = table.length - 1;
+        int slot = slot(string, mask);
+
+        while (table[slot] != 0) {
+            if (table[slot] == string) return false;
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = string;
+        size++;
+        return true;
+    }
+
+    /**
+     * Add all strings of another set to this set
+     * @param other Add the strings of this set
+     * @return True when the set has changed
+     */
+    public boolean addAll(LookaheadSet other) {
+        boolean changed = false;
+
+        if (other.containsEmpty) {
+            changed = add(0);
+        }
+
+        for (long string : other.table) {
+            if (string != 0) {
+                changed |= add(string);
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Get all strings of the set in ascending order
+     * @return Array with the packed strings
+     */
+    public long[] toArray() {
+        long[] strings = strings();
+
+        //Flip the sign bit to sort the strings as unsigned numbers
+        for (int i = 0; i < strings.length; i++) strings[i] ^= Long.MIN_VALUE;
+        Arrays.sort(strings);
+        for (int i = 0; i < strings.length; i++) strings[i] ^= Long.MIN_VALUE;
+
+        return strings;
+    }
+
+    /**
+     * Convert the strings into words of terminal symbols
+     * @param index The symbol index of the terminal ids
+     * @return Words in ascending order, the empty string is the word ε
+     */
+    public Set<Word> toWords(SymbolIndex index) {
+        Set<Word> words = new LinkedHashSet<>();
+
+        for (long string : toArray()) {
+            int length = Length(string);
+
+            if (length == 0) {
+                words.add(new Word(ε));
+
+            } else {
+                Symbol[] symbols = new Symbol[length];
+
+                for (int i = 0; i < length; i++) {
+                    symbols[i] = index.terminal(Get(string, i));
+                }
+
+                words.add(new Word(symbols));
+            }
+        }
+
+        return words;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LookaheadSet)) return false;
+        return Arrays.equals(toArray(), ((LookaheadSet)o).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+
+        for (long string : toArray()) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(Long.toHexString(string));
+        }
+
+        return sb.append("}").toString();
+    }
+
+    /**
+     * Create the set of all strings xy of a and b that are truncated to k
+     * terminals. Strings of a with k terminals are not concatenated at all,
+     * so they are part of the result even if b is empty. This matches the
+     * first and follow sets of the other generators for k = 1.
+     * @param a Set with the prefixes
+     * @param b Set with the suffixes
+     * @param k Maximal length of the strings
+     * @return New set with the truncated concatenations
+     */
+    public static LookaheadSet Concat(LookaheadSet a, LookaheadSet b, int k) {
+        LookaheadSet result = new LookaheadSet();
+        long[] suffixes = b.strings();
+
+        for (long x : a.strings()) {
+            if (Length(x) >= k) {
+                result.add(x);
+
+            } else {
+                for (long y : suffixes) {
+                    result.add(Concat(x, y, k));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Check if all strings of the set have k terminals. Any
+     * concatenation with such a set will not change the set.
+     * @param set The set to check
+     * @param k Maximal length of the strings
+     * @return True when there is no shorter string
+     */
+    public static boolean IsComplete(LookaheadSet set, int k) {
+        if (set.containsEmpty) {
+            return k == 0;
+        }
+
+        for (long string : set.table) {
+            if (string != 0 && Length(string) < k) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Create a packed string with one terminal
+     * @param terminalId Id of the terminal
+     * @return The packed string
+     */
+    public static long Of(int terminalId) {
+        if (terminalId <= 0 || terminalId > MAX_TERMINAL_ID) {
+            throw new IllegalArgumentException("Terminal id " + terminalId + " can not be packed");
+        }
+
+        return (long)terminalId << (SYMBOL_BITS * (MAX_LENGTH - 1));
+    }
+
+    /**
+     * Get the number of terminals of a packed string
+     * @param string The packed string
+     * @return Number of terminals
+     */
+    public static int Length(long string) {
+        if (string == 0) return 0;
+        return (63 - Long.numberOfTrailingZeros(string)) / SYMBOL_BITS + 1;
+    }
+
+    /**
+     * Get a terminal of a packed string
+     * @param string The packed string
+     * @param index Position of the terminal
+     * @return Id of the terminal
+     */
+    public static int Get(long string, int index) {
+        return (int)(string >>> (SYMBOL_BITS * (MAX_LENGTH - 1 - index))) & MAX_TERMINAL_ID;
+    }
+
+    /**
+     * Concatenate two packed strings and truncate the result to k terminals
+     * @param x The prefix
+     * @param y The suffix
+     * @param k Maximal length of the result
+     * @return The truncated packed string
+     */
+    public static long Concat(long x, long y, int k) {
+        int length = Length(x);
+
+        if (length >= k) {
+            return Truncate(x, k);
+        }
+
+        return Truncate(x | (y >>> (SYMBOL_BITS * length)), k);
+    }
+
+    /**
+     * Remove all terminals after the first k terminals
+     * @param string The packed string
+     * @param k Maximal length of the result
+     * @return The truncated packed string
+     */
+    public static long Truncate(long string, int k) {
+        if (k >= MAX_LENGTH) return string;
+        return string & ~(-1L >>> (SYMBOL_BITS * k));
+    }
+
+    /**
+     * Get all strings of the set in the order of the hash table
+     * @return Array with the packed strings
+     */
+    private long[] strings() {
+        long[] strings = new long[size];
+        int index = 0;
+
+        if (containsEmpty) {
+            strings[index++] = 0;
+        }
+
+        for (long string : table) {
+            if (string != 0) {
+                strings[index++] = string;
+            }
+        }
+
+        return strings;
+    }
+
+    private static int slot(long string, int mask) {
+        long hash = string * 0x9E3779B97F4A7C15L;
+        return (int)(hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldTable = table;
+        table = new long[capacity];
+        int mask = capacity - 1;
+
+        for (long string : oldTable) {
+            if (string != 0) {
+                int slot = slot(string, mask);
+
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+
+                table[slot] = string;
+            }
+        }
+    }
+}
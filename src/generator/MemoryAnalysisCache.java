@@ -0,0 +1,296 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Thread-safe in-memory cache of grammar analyses with least recently
+ * used eviction. The entries are keyed by the fingerprint of the grammar
+ * and the size of the cache is limited by the estimated bytes of all
+ * entries. The cache is split into stripes with their own lock, so
+ * lookups of different grammars rarely wait for each other. The byte
+ * limit is shared by all stripes: when it is exceeded, the least recently
+ * used entry of all stripes is evicted. A missing analysis is computed
+ * without holding a lock, so two threads can compute the same analysis
+ * at the same time.
+ *
+ * The analysis of a hit can belong to another grammar instance with the
+ * same fingerprint. Its sets are equal, since the grammars are equal.
+ */
+public class MemoryAnalysisCache {
+
+    /** Default number of stripes */
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes;
+    private final long maxBytes;
+    private final Function<Grammar, Analysis> loader;
+
+    /** Estimated bytes of the entries of all stripes */
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    /** Logical time of the last access of an entry */
+    private final AtomicLong clock = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create a cache that computes the missing analyses with the SetGenerator
+     * @param maxBytes Limit of the estimated bytes of all entries
+     */
+    public MemoryAnalysisCache(long maxBytes) {
+        this(maxBytes, STRIPES, Analysis::Of);
+    }
+
+    /**
+     * Create a cache with a custom loader, for example a disk cache
+     * @param maxBytes Limit of the estimated bytes of all entries
+     * @param stripeCount Number of independently locked parts
+     * @param loader Computes the analysis of a missing grammar
+     */
+    public MemoryAnalysisCache(long maxBytes, int stripeCount, Function<Grammar, Analysis> loader) {
+        if (maxBytes <= 0 || stripeCount <= 0) {
+            throw new IllegalArgumentException("The size and the number of stripes must be positive");
+        }
+
+        this.stripes = new Stripe[stripeCount];
+        this.maxBytes = maxBytes;
+        this.loader = loader;
+
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Get the analysis of a grammar. A missing analysis is computed and
+     * added, unless it is larger than the limit of the cache.
+     * @param grammar The grammar to analyze
+     * @return The cached or computed analysis
+     */
+    public Analysis get(Grammar grammar) {
+        String key = grammar.fingerprint();
+        Stripe stripe = stripe(key);
+        Entry entry;
+
+        synchronized (stripe) {
+            entry = stripe.entries.get(key);
+            if (entry != null) entry.lastAccess = clock.incrementAndGet();
+        }
+
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.analysis;
+        }
+
+        misses.incrementAndGet();
+        Analysis analysis = loader.apply(grammar);
+        long bytes = EstimateBytes(analysis);
+
+        if (bytes > maxBytes) {
+            return analysis;
+        }
+
+        synchronized (stripe) {
+            //Another thread may have added the same grammar
+            Entry existing = stripe.entries.get(key);
+            if (existing != null) return existing.analysis;
+
+            stripe.entries.put(key, new Entry(analysis, bytes, clock.incrementAndGet()));
+            stripe.bytes += bytes;
+            totalBytes.addAndGet(bytes);
+        }
+
+        //Evict until the entries fit into the limit again
+        boolean evicted = true;
+
+        while (evicted && totalBytes.get() > maxBytes) {
+            evicted = evictEldest(key);
+        }
+
+        return analysis;
+    }
+
+    /**
+     * Remove the least recently used entry of all stripes. The eldest
+     * entry of every stripe is compared by the time of its last access.
+     * @param keep The key of the new entry, which is never removed
+     * @return False when there is no entry to remove
+     */
+    private boolean evictEldest(String keep) {
+        Stripe eldestStripe = null;
+        long eldestAccess = Long.MAX_VALUE;
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Map.Entry<String, Entry> eldest = stripe.eldest(keep);
+
+                if (eldest != null && eldest.getValue().lastAccess < eldestAccess) {
+                    eldestStripe = stripe;
+                    eldestAccess = eldest.getValue().lastAccess;
+                }
+            }
+        }
+
+        if (eldestStripe == null) {
+            return false;
+        }
+
+        synchronized (eldestStripe) {
+            //The entry may have been used or removed by another thread
+            Map.Entry<String, Entry> eldest = eldestStripe.eldest(keep);
+            if (eldest == null) return true;
+
+            eldestStripe.entries.remove(eldest.getKey());
+            eldestStripe.bytes -= eldest.getValue().bytes;
+            totalBytes.addAndGet(-eldest.getValue().bytes);
+            evictions.incrementAndGet();
+        }
+
+        return true;
+    }
+
+    /**
+     * Remove all entries, the counters are not reset
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entries.clear();
+                totalBytes.addAndGet(-stripe.bytes);
+                stripe.bytes = 0;
+            }
+        }
+    }
+
+    /**
+     * Get the number of lookups that found an entry
+     * @return Number of hits
+     */
+    public long hitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of lookups that computed the analysis
+     * @return Number of misses
+     */
+    public long missCount() {
+        return misses.get();
+    }
+
+    /**
+     * Get the number of entries that were removed to free space
+     * @return Number of evictions
+     */
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Get the number of cached analyses
+     * @return Number of entries of all stripes
+     */
+    public int size() {
+        int size = 0;
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.entries.size();
+            }
+        }
+
+        return size;
+    }
+
+    /**
+     * Get the estimated size of all entries
+     * @return Sum of the estimated bytes of all entries
+     */
+    public long estimatedBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * Estimate the retained heap size of an analysis with its grammar.
+     * The estimate counts the objects of the maps, the sets and the
+     * productions with typical sizes of a 64-bit JVM.
+     * @param analysis The analysis to measure
+     * @return Estimated number of bytes
+     */
+    public static long EstimateBytes(Analysis analysis) {
+        long bytes = 64;
+
+        bytes += EstimateBytes(analysis.First);
+        bytes += EstimateBytes(analysis.Follow);
+        bytes += EstimateBytes(analysis.Predict);
+
+        //Productions with their right sides and the hash set entries
+        for (Production p : analysis.Grammar.Productions) {
+            bytes += 24 + 40 + 48 + 16 + 4L * p.RightSide.length();
+        }
+
+        //Symbols with their names
+        bytes += analysis.Grammar.Symbols.size() * 96L;
+        return bytes;
+    }
+
+    private static long EstimateBytes(Map<?, SymbolSet> sets) {
+        long bytes = 64 + 16L * sets.size();
+
+        for (SymbolSet set : sets.values()) {
+            //Map entry, set object, its table and the linked entries
+            bytes += 40 + 64 + 16 + 4L * set.size() + 40L * set.size();
+        }
+
+        return bytes;
+    }
+
+    private Stripe stripe(String key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    /**
+     * Entries of one stripe in access order, guarded by the stripe
+     */
+    private static final class Stripe {
+        private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        /**
+         * Get the least recently used entry without changing the access order
+         * @param keep Skip the entry with this key
+         * @return The eldest entry or null when the stripe has no other entry
+         */
+        Map.Entry<String, Entry> eldest(String keep) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                if (!entry.getKey().equals(keep)) return entry;
+            }
+
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        private final Analysis analysis;
+        private final long bytes;
+
+        /** Guarded by the stripe of the entry */
+        private long lastAccess;
+
+        Entry(Analysis analysis, long bytes, long lastAccess) {
+            this.analysis = analysis;
+            this.bytes = bytes;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -24,6 +24,6 @@ public class Nonterminal extends Symbol {
         if (this == o) return true;
         if (!(o instanceof Nonterminal)) return false;
         Nonterminal other = (Nonterminal)o;
-        return text.equals(other.text);
+        return hash == other.hash && text.equals(other.text);
     }
 }
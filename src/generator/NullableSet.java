@@ -0,0 +1,151 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.*;
+
+import static generator.Singletons.*;
+import static generator.SymbolSet.*;
+
+/**
+ * Contains all nonterminals of a grammar that can derive the empty word.
+ * The set is computed in linear time: every production counts the symbols
+ * of its right side that are not known to be nullable. When a counter drops
+ * to zero, the left side of the production is nullable and the counters of
+ * all productions that contain this nonterminal are decremented.
+ */
+public class NullableSet {
+
+    /** All nullable nonterminals */
+    private final SymbolSet nullable = new SymbolSet();
+
+    /** Index of the first symbol of the longest nullable suffix for every right side */
+    private final Map<Word, Integer> nullableSuffixes = new HashMap<>();
+
+    /**
+     * Compute the nullable nonterminals of a grammar
+     * @param grammar The grammar for the computation
+     */
+    public NullableSet(Grammar grammar) {
+        Map<Production, Integer> counters = new HashMap<>();
+        Deque<Symbol> queue = new ArrayDeque<>();
+
+        for (Production rule : grammar.Productions) {
+            int counter = 0;
+
+            for (Symbol sy : rule.RightSide) {
+                if (sy instanceof Nonterminal) {
+                    counter++;
+
+                } else if (!sy.equals(ε)) {
+                    //Productions with terminals are never nullable
+                    counter = -1;
+                    break;
+                }
+            }
+
+            counters.put(rule, counter);
+
+            if (counter == 0 && nullable.add(rule.LeftSide)) {
+                queue.add(rule.LeftSide);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            Symbol n = queue.poll();
+
+            for (ProductionSet.Occurrence occurrence : grammar.Productions.occurrences(n)) {
+                Production rule = occurrence.Rule;
+                int counter = counters.get(rule) - 1;
+                counters.put(rule, counter);
+
+                if (counter == 0 && nullable.add(rule.LeftSide)) {
+                    queue.add(rule.LeftSide);
+                }
+            }
+        }
+
+        //Find the start of the nullable suffix of every distinct right side
+        for (Production rule : grammar.Productions) {
+            if (nullableSuffixes.containsKey(rule.RightSide)) continue;
+            int begin = 0;
+            int index = 0;
+
+            for (Symbol sy : rule.RightSide) {
+                index++;
+
+                if (!isNullable(sy)) {
+                    begin = index;
+                }
+            }
+
+            nullableSuffixes.put(rule.RightSide, begin);
+        }
+    }
+
+    /**
+     * Get all nullable nonterminals
+     * @return Set with all nonterminals that can derive the empty word
+     */
+    public SymbolSet symbols() {
+        return Union(nullable, EmptySet);
+    }
+
+    /**
+     * Check if a symbol can be transformed into the empty word
+     * @param sy The symbol to check
+     * @return True for the empty word and nullable nonterminals
+     */
+    public boolean isNullable(Symbol sy) {
+        return (sy instanceof Nonterminal) ? nullable.contains(sy) : sy.equals(ε);
+    }
+
+    /**
+     * Check if a word can be transformed into the empty word.
+     * The check stops at the first symbol that is not nullable.
+     * @param word The word to check
+     * @return True when the empty word can be derived
+     */
+    public boolean isNullable(Word word) {
+        for (Symbol sy : word) {
+            if (!isNullable(sy)) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Check if the right side of a production can be transformed into the empty word
+     * @param rule A production of the grammar
+     * @return True when the empty word can be derived from the right side
+     */
+    public boolean isNullable(Production rule) {
+        return isNullable(rule, 0);
+    }
+
+    /**
+     * Check if a suffix of the right side of a production can be transformed
+     * into the empty word. The suffix starts with the symbol of beginIndex,
+     * so this is the same as checking rule.RightSide.subWord(beginIndex).
+     * @param rule A production of the grammar
+     * @param beginIndex Skip this number of symbols of the right side
+     * @return True when the empty word can be derived from the suffix
+     */
+    public boolean isNullable(Production rule, int beginIndex) {
+        Integer suffixBegin = nullableSuffixes.get(rule.RightSide);
+
+        if (suffixBegin == null) {
+            return isNullable(rule.RightSide.subWord(beginIndex));
+        }
+
+        return beginIndex >= suffixBegin;
+    }
+
+    @Override
+    public String toString() {
+        return nullable.toString();
+    }
+}
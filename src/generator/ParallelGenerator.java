@@ -0,0 +1,155 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static generator.SymbolIndex.*;
+
+/**
+ * Parallel generation of the first, follow and predict sets. The first
+ * and follow relations of the DigraphGenerator are split into their
+ * strongly connected components and every component is solved by a
+ * fork/join task as soon as the components it depends on are solved.
+ */
+public class ParallelGenerator {
+
+    /** Number of productions that are handled by one predict task */
+    private static final int PREDICT_BATCH_SIZE = 1024;
+
+    /**
+     * Generate the first sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all nonterminals as keys and first sets as values
+     */
+    public static Map<Symbol, SymbolSet> First(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        return index.toSymbolSets(First(index, ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * Generate the follow sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all nonterminals as keys and follow sets as values
+     */
+    public static Map<Symbol, SymbolSet> Follow(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return index.toSymbolSets(Follow(index, First(index, pool), pool));
+    }
+
+    /**
+     * Generate the predict sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all productions as keys and predict sets as values
+     */
+    public static Map<Production, SymbolSet> Predict(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        long[][] firstSets = First(index, pool);
+        return index.toProductionSets(Predict(index, firstSets, Follow(index, firstSets, pool), pool));
+    }
+
+    /**
+     * Generate the first sets of all nonterminals
+     * @param index The indexed grammar for the generation
+     * @param pool Execute the tasks with this pool
+     * @return Bitsets with terminal ids indexed by the nonterminal ids
+     */
+    public static long[][] First(SymbolIndex index, ForkJoinPool pool) {
+        boolean[] nullable = DigraphGenerator.Nullable(index);
+        long[][] firstSets = new long[index.nonterminalCount()][];
+
+        for (int n = 0; n < firstSets.length; n++) {
+            firstSets[n] = index.createTerminalSet();
+        }
+
+        Digraph.Traverse(DigraphGenerator.FirstRelation(index, nullable, firstSets), firstSets, pool);
+
+        //The empty word is not passed along the relation
+        for (int n = 0; n < firstSets.length; n++) {
+            if (nullable[n]) {
+                BitSets.Add(firstSets[n], εId);
+            }
+        }
+
+        return firstSets;
+    }
+
+    /**
+     * Generate the follow sets of all nonterminals
+     * with the precomputed first sets
+     * @param index The indexed grammar for the generation
+     * @param firstSets The precomputed first sets
+     * @param pool Execute the tasks with this pool
+     * @return Bitsets with terminal ids indexed by the nonterminal ids
+     */
+    public static long[][] Follow(SymbolIndex index, long[][] firstSets, ForkJoinPool pool) {
+        long[][] followSets = new long[index.nonterminalCount()][];
+
+        for (int n = 0; n < followSets.length; n++) {
+            followSets[n] = index.createTerminalSet();
+        }
+
+        Digraph.Traverse(DigraphGenerator.FollowRelation(index, firstSets, followSets), followSets, pool);
+        return followSets;
+    }
+
+    /**
+     * Generate the predict sets of all productions
+     * with the precomputed first and follow sets
+     * @param index The indexed grammar for the generation
+     * @param firstSets The precomputed first sets
+     * @param followSets The precomputed follow sets
+     * @param pool Execute the tasks with this pool
+     * @return Bitsets with terminal ids indexed by the production ids
+     */
+    public static long[][] Predict(SymbolIndex index, long[][] firstSets, long[][] followSets, ForkJoinPool pool) {
+        long[][] predictSets = new long[index.productionCount()][];
+        pool.invoke(new PredictTask(index, firstSets, followSets, predictSets, 0, predictSets.length));
+        return predictSets;
+    }
+
+    /**
+     * Task that generates the predict sets of a range of productions.
+     * Large ranges are split into two halves.
+     */
+    private static class PredictTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SymbolIndex index;
+        private final long[][] firstSets;
+        private final long[][] followSets;
+        private final long[][] predictSets;
+        private final int from;
+        private final int to;
+
+        PredictTask(SymbolIndex index, long[][] firstSets, long[][] followSets, long[][] predictSets, int from, int to) {
+            this.index = index;
+            this.firstSets = firstSets;
+            this.followSets = followSets;
+            this.predictSets = predictSets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PREDICT_BATCH_SIZE) {
+                for (int p = from; p < to; p++) {
+                    predictSets[p] = BitSetGenerator.Predict(index, firstSets, followSets, p);
+                }
+
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PredictTask(index, firstSets, followSets, predictSets, from, middle),
+                          new PredictTask(index, firstSets, followSets, predictSets, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static generator.Singletons.*;
+
+/**
+ * Generates the Java source code of a recursive-descent parser from the
+ * predict sets of a grammar. The generated class has no dependencies
+ * except the JDK. Every terminal gets an int constant with its token kind
+ * and every nonterminal gets a method with a switch over the token kinds
+ * of the predict sets. When more than one production is predicted for a
+ * token kind, the first production of the grammar is used and the
+ * conflict is marked with a comment in the generated source.
+ */
+public class ParserSourceGenerator {
+
+    /** Indentation of the generated source */
+    private static final String INDENT = "    ";
+
+    /** Java keywords and literals that can not be used as identifiers */
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class",
+            "const", "continue", "default", "do", "double", "else", "enum", "extends", "final",
+            "finally", "float", "for", "goto", "if", "implements", "import", "instanceof", "int",
+            "interface", "long", "native", "new", "package", "private", "protected", "public",
+            "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+            "throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false",
+            "null", "var", "_"));
+
+    /**
+     * Generate the source of a parser with the predict sets of the set generator
+     * @param grammar The grammar of the parser
+     * @param packageName Package of the generated class, empty for the default package
+     * @param className Simple name of the generated class
+     * @return The Java source code of the parser
+     */
+    public static String Generate(Grammar grammar, String packageName, String className) {
+        return Generate(grammar, SetGenerator.Predict(grammar), packageName, className);
+    }
+
+    /**
+     * Generate the source of a parser with precomputed predict sets
+     * @param grammar The grammar of the parser
+     * @param predictSets The predict sets of all productions
+     * @param packageName Package of the generated class, empty for the default package
+     * @param className Simple name of the generated class
+     * @return The Java source code of the parser
+     */
+    public static String Generate(Grammar grammar, Map<Production, SymbolSet> predictSets, String packageName, String className) {
+        if (!IsIdentifier(className)) {
+            throw new IllegalArgumentException("Invalid class name: " + className);
+        }
+
+        SymbolIndex index = new SymbolIndex(grammar);
+        String[] tokenNames = TokenNames(index);
+        String[] methodNames = MethodNames(index);
+        StringBuilder sb = new StringBuilder();
+
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+
+        sb.append("import java.util.function.IntSupplier;\n\n");
+        sb.append("/**\n");
+        sb.append(" * Recursive-descent parser generated from the predict sets of the grammar:\n");
+
+        for (Production rule : grammar.Productions) {
+            sb.append(" * ").append(Comment(rule.toString())).append("\n");
+        }
+
+        sb.append(" */\n");
+        sb.append("public class ").append(className).append(" {\n\n");
+
+        //Token kinds are the terminal ids of the symbol index
+        for (int t = SymbolIndex.EndmarkerId; t < index.terminalCount(); t++) {
+            sb.append(INDENT).append("/** ").append(Comment(index.terminal(t).toString())).append(" */\n");
+            sb.append(INDENT).append("public static final int ").append(tokenNames[t])
+                    .append(" = ").append(t).append(";\n\n");
+        }
+
+        sb.append(INDENT).append("/** Text of every token kind */\n");
+        sb.append(INDENT).append("public static final String[] TOKEN_TEXTS = {");
+
+        for (int t = 0; t < index.terminalCount(); t++) {
+            sb.append(t == 0 ? " " : ", ").append(t == 0 ? "null" : StringLiteral(index.terminal(t).toString()));
+        }
+
+        sb.append(" };\n\n");
+
+        sb.append(INDENT).append("/**\n");
+        sb.append(INDENT).append(" * Thrown when the parser finds an unexpected token\n");
+        sb.append(INDENT).append(" */\n");
+        sb.append(INDENT).append("public static class SyntaxError extends RuntimeException {\n");
+        sb.append(INDENT).append(INDENT).append("public final int Token;\n");
+        sb.append(INDENT).append(INDENT).append("public final long Position;\n\n");
+        sb.append(INDENT).append(INDENT).append("SyntaxError(int token, long position) {\n");
+        sb.append(INDENT).append(INDENT).append(INDENT)
+                .append("super(\"Unexpected token \" + (token > 0 && token < TOKEN_TEXTS.length ? TOKEN_TEXTS[token] : token)")
+                .append(" + \" at position \" + position);\n");
+        sb.append(INDENT).append(INDENT).append(INDENT).append("this.Token = token;\n");
+        sb.append(INDENT).append(INDENT).append(INDENT).append("this.Position = position;\n");
+        sb.append(INDENT).append(INDENT).append("}\n");
+        sb.append(INDENT).append("}\n\n");
+
+        sb.append(INDENT).append("private final IntSupplier tokens;\n");
+        sb.append(INDENT).append("private int token;\n");
+        sb.append(INDENT).append("private long position;\n\n");
+
+        sb.append(INDENT).append("/**\n");
+        sb.append(INDENT).append(" * Create a parser for a stream of token kinds\n");
+        sb.append(INDENT).append(" * @param tokens Supplies the token kinds, the end of the stream is ")
+                .append(tokenNames[SymbolIndex.EndmarkerId]).append("\n");
+        sb.append(INDENT).append(" */\n");
+        sb.append(INDENT).append("public ").append(className).append("(IntSupplier tokens) {\n");
+        sb.append(INDENT).append(INDENT).append("this.tokens = tokens;\n");
+        sb.append(INDENT).append(INDENT).append("this.token = tokens.getAsInt();\n");
+        sb.append(INDENT).append("}\n\n");
+
+        sb.append(INDENT).append("/**\n");
+        sb.append(INDENT).append(" * Parse the complete token stream\n");
+        sb.append(INDENT).append(" * @throws SyntaxError When the stream is not a word of the grammar\n");
+        sb.append(INDENT).append(" */\n");
+        sb.append(INDENT).append("public void parse() {\n");
+        sb.append(INDENT).append(INDENT).append(methodNames[index.startSymbol()]).append("();\n");
+        sb.append(INDENT).append(INDENT).append("expect(").append(tokenNames[SymbolIndex.EndmarkerId]).append(");\n");
+        sb.append(INDENT).append("}\n\n");
+
+        sb.append(INDENT).append("private void expect(int kind) {\n");
+        sb.append(INDENT).append(INDENT).append("if (token != kind) throw new SyntaxError(token, position);\n\n");
+        sb.append(INDENT).append(INDENT).append("if (kind != ").append(tokenNames[SymbolIndex.EndmarkerId]).append(") {\n");
+        sb.append(INDENT).append(INDENT).append(INDENT).append("token = tokens.getAsInt();\n");
+        sb.append(INDENT).append(INDENT).append(INDENT).append("position++;\n");
+        sb.append(INDENT).append(INDENT).append("}\n");
+        sb.append(INDENT).append("}\n");
+
+        for (int n = 0; n < index.nonterminalCount(); n++) {
+            sb.append("\n");
+            AppendMethod(sb, index, predictSets, tokenNames, methodNames, n);
+        }
+
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Append the method of a nonterminal with a case for every predicted token kind
+     */
+    private static void AppendMethod(StringBuilder sb, SymbolIndex index, Map<Production, SymbolSet> predictSets,
+                                     String[] tokenNames, String[] methodNames, int n) {
+        //Group the token kinds by the first predicted production
+        Map<Integer, List<Integer>> cases = new LinkedHashMap<>();
+        Map<Integer, List<Integer>> conflicts = new LinkedHashMap<>();
+        int[] predicted = new int[index.terminalCount()];
+        Arrays.fill(predicted, -1);
+
+        for (int p : index.alternatives(n)) {
+            SymbolSet set = predictSets.get(index.production(p));
+
+            if (set == null) {
+                throw new IllegalArgumentException("No predict set for " + index.production(p));
+            }
+
+            for (Symbol sy : set) {
+                if (sy.equals(ε)) continue;
+                int t = index.terminalId(sy);
+
+                if (predicted[t] < 0) {
+                    predicted[t] = p;
+                    cases.computeIfAbsent(p, k -> new ArrayList<>()).add(t);
+                } else {
+                    conflicts.computeIfAbsent(p, k -> new ArrayList<>()).add(t);
+                }
+            }
+        }
+
+        sb.append(INDENT).append("/** ").append(Comment(index.nonterminal(n).toString())).append(" */\n");
+        sb.append(INDENT).append("private void ").append(methodNames[n]).append("() {\n");
+        sb.append(INDENT).append(INDENT).append("switch (token) {\n");
+
+        for (Map.Entry<Integer, List<Integer>> entry : cases.entrySet()) {
+            int p = entry.getKey();
+
+            for (int t : entry.getValue()) {
+                sb.append(INDENT).append(INDENT).append(INDENT).append("case ").append(tokenNames[t]).append(":\n");
+            }
+
+            sb.append(INDENT).append(INDENT).append(INDENT).append(INDENT)
+                    .append("//").append(Comment(index.production(p).toString())).append("\n");
+
+            for (int code : index.rightSide(p)) {
+                sb.append(INDENT).append(INDENT).append(INDENT).append(INDENT);
+
+                if (code < 0) {
+                    sb.append("expect(").append(tokenNames[~code]).append(");\n");
+                } else {
+                    sb.append(methodNames[code]).append("();\n");
+                }
+            }
+
+            sb.append(INDENT).append(INDENT).append(INDENT).append(INDENT).append("return;\n");
+        }
+
+        sb.append(INDENT).append(INDENT).append(INDENT).append("default:\n");
+
+        for (Map.Entry<Integer, List<Integer>> entry : conflicts.entrySet()) {
+            sb.append(INDENT).append(INDENT).append(INDENT).append(INDENT).append("//Conflict: ")
+                    .append(Comment(index.production(entry.getKey()).toString())).append(" is not used for");
+
+            for (int t : entry.getValue()) {
+                sb.append(" ").append(tokenNames[t]);
+            }
+
+            sb.append("\n");
+        }
+
+        sb.append(INDENT).append(INDENT).append(INDENT).append(INDENT).append("throw new SyntaxError(token, position);\n");
+        sb.append(INDENT).append(INDENT).append("}\n");
+        sb.append(INDENT).append("}\n");
+    }
+
+    /**
+     * Create unique constant names for all token kinds
+     * @param index The symbol index of the terminal ids
+     * @return Constant names indexed by the terminal ids
+     */
+    private static String[] TokenNames(SymbolIndex index) {
+        String[] names = new String[index.terminalCount()];
+        Set<String> used = new HashSet<>();
+        names[SymbolIndex.EndmarkerId] = "EOF";
+        used.add("EOF");
+
+        for (int t = SymbolIndex.EndmarkerId + 1; t < index.terminalCount(); t++) {
+            String text = index.terminal(t).toString();
+            String name = IsIdentifier(text) ? "T_" + text.toUpperCase() : "T" + t;
+            names[t] = used.add(name) ? name : "T" + t;
+            used.add(names[t]);
+        }
+
+        return names;
+    }
+
+    /**
+     * Create unique method names for all nonterminals
+     * @param index The symbol index of the nonterminal ids
+     * @return Method names indexed by the nonterminal ids
+     */
+    private static String[] MethodNames(SymbolIndex index) {
+        String[] names = new String[index.nonterminalCount()];
+        Set<String> used = new HashSet<>();
+
+        for (int n = 0; n < names.length; n++) {
+            StringBuilder sb = new StringBuilder("parse");
+
+            for (char c : index.nonterminal(n).toString().toCharArray()) {
+                sb.append(Character.isJavaIdentifierPart(c) ? c : '_');
+            }
+
+            //Different names can map to the same method name, count up until it is unique
+            String name = sb.toString();
+            names[n] = name;
+
+            for (int suffix = n; !used.add(names[n]); suffix++) {
+                names[n] = name + "_" + suffix;
+            }
+        }
+
+        return names;
+    }
+
+    private static boolean IsIdentifier(String text) {
+        if (text.isEmpty() || KEYWORDS.contains(text) || !Character.isJavaIdentifierStart(text.charAt(0))) {
+            return false;
+        }
+
+        for (char c : text.toCharArray()) {
+            if (!Character.isJavaIdentifierPart(c)) return false;
+        }
+
+        return true;
+    }
+
+    private static String Comment(String text) {
+        //Backslashes are doubled, so the comment can not contain unicode escapes
+        return text.replace("\\", "\\\\").replace("*/", "*\\/").replace("\n", " ").replace("\r", " ");
+    }
+
+    private static String StringLiteral(String text) {
+        StringBuilder sb = new StringBuilder("\"");
+
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                //Unicode escapes of line breaks would end the literal
+                sb.append(String.format("\\%03o", (int)c));
+
+            } else if (c > 0x7E) {
+                sb.append(String.format("\\u%04x", (int)c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+}
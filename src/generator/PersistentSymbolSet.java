@@ -0,0 +1,291 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable set of symbols with structural sharing. The symbols are kept
+ * in insertion order like in a symbol set. A set is a prefix of a shared
+ * append-only buffer: a union that only adds symbols to the newest set of
+ * a buffer appends them to the buffer and the new set shares all symbols
+ * with the old set. The static operations return an existing operand
+ * without any allocation, when the result contains the same symbols in
+ * the same order. All sets are safe to share across threads.
+ */
+public final class PersistentSymbolSet extends AbstractSet<Symbol> {
+
+    /** The set with no elements */
+    public static final PersistentSymbolSet EmptySet = new PersistentSymbolSet(new Buffer(0), 0);
+
+    private final Buffer buffer;
+    private final int size;
+
+    private PersistentSymbolSet(Buffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Create a new set of symbols
+     * @param symbols Add these symbols to the set
+     * @return The set with the symbols in the given order
+     */
+    public static PersistentSymbolSet Of(Symbol... symbols) {
+        return Of(Arrays.asList(symbols));
+    }
+
+    /**
+     * Create a new set with the symbols of a collection
+     * @param symbols Add these symbols to the set
+     * @return The set with the symbols in the iteration order of the collection
+     */
+    public static PersistentSymbolSet Of(Iterable<? extends Symbol> symbols) {
+        Buffer buffer = new Buffer(8);
+
+        for (Symbol sy : symbols) {
+            if (!buffer.positions.containsKey(sy)) {
+                buffer.append(sy);
+            }
+        }
+
+        return (buffer.used == 0) ? EmptySet : new PersistentSymbolSet(buffer, buffer.used);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        Integer position = buffer.positions.get(o);
+        return position != null && position < size;
+    }
+
+    @Override
+    public Iterator<Symbol> iterator() {
+        return new Iterator<Symbol>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Symbol next() {
+                if (index >= size) throw new NoSuchElementException();
+                return buffer.symbols[index++];
+            }
+        };
+    }
+
+    /**
+     * Create a set with an additional symbol
+     * @param sy The symbol to add
+     * @return This set when it contains the symbol, otherwise the extended set
+     */
+    public PersistentSymbolSet with(Symbol sy) {
+        return contains(sy) ? this : Append(this, new Symbol[]{ sy }, 1);
+    }
+
+    /**
+     * Copy the symbols into a mutable symbol set
+     * @return New symbol set with the same order
+     */
+    public SymbolSet toSymbolSet() {
+        SymbolSet set = new SymbolSet();
+        set.addAll(this);
+        return set;
+    }
+
+    @Override
+    public String toString() {
+        return toSymbolSet().toString();
+    }
+
+    /**
+     * Create a set with the elements that are in a or b. The elements of b
+     * that are not in a are added after the elements of a.
+     * @param a First set
+     * @param b Second set
+     * @return a when b is a subset of a, b when a is a prefix of b, otherwise the new union set
+     */
+    public static PersistentSymbolSet Union(PersistentSymbolSet a, PersistentSymbolSet b) {
+        if (b.size == 0 || a == b) return a;
+        if (a.size == 0) return b;
+
+        //Sets of the same buffer are prefixes of each other
+        if (a.buffer == b.buffer) {
+            return (a.size >= b.size) ? a : b;
+        }
+
+        Symbol[] missing = null;
+        int count = 0;
+
+        for (int i = 0; i < b.size; i++) {
+            Symbol sy = b.buffer.symbols[i];
+
+            if (!a.contains(sy)) {
+                if (missing == null) missing = new Symbol[b.size - i];
+                missing[count++] = sy;
+            }
+        }
+
+        return (count == 0) ? a : Append(a, missing, count);
+    }
+
+    /**
+     * Create a set with the elements of a without the elements of b
+     * @param a First set
+     * @param b Second set
+     * @return a when no element of a is in b, otherwise the new difference set
+     */
+    public static PersistentSymbolSet Difference(PersistentSymbolSet a, PersistentSymbolSet b) {
+        if (a.size == 0 || b.size == 0) return a;
+        if (a.buffer == b.buffer && a.size <= b.size) return EmptySet;
+
+        return Filter(a, b, false);
+    }
+
+    /**
+     * Create a set with all elements that are exclusive in a or b
+     * @param a First set
+     * @param b Second set
+     * @return The symmetric difference set
+     */
+    public static PersistentSymbolSet SymmetricDifference(PersistentSymbolSet a, PersistentSymbolSet b) {
+        return Union(Difference(a, b), Difference(b, a));
+    }
+
+    /**
+     * Create a set with all elements that are in a and b.
+     * The elements of a are used to construct the new set.
+     * @param a First set
+     * @param b Second set
+     * @return a when a is a subset of b, otherwise the new intersection set
+     */
+    public static PersistentSymbolSet Intersection(PersistentSymbolSet a, PersistentSymbolSet b) {
+        if (a.size == 0) return a;
+        if (b.size == 0) return EmptySet;
+        if (a.buffer == b.buffer) return (a.size <= b.size) ? a : b;
+
+        return Filter(a, b, true);
+    }
+
+    /**
+     * Keep the elements of a that are in b or not in b
+     * @param a The set to filter
+     * @param b The set to check
+     * @param keepContained Keep the elements that are in b
+     * @return a when all elements are kept, otherwise the new filtered set
+     */
+    private static PersistentSymbolSet Filter(PersistentSymbolSet a, PersistentSymbolSet b, boolean keepContained) {
+        Buffer result = null;
+
+        for (int i = 0; i < a.size; i++) {
+            Symbol sy = a.buffer.symbols[i];
+            boolean keep = b.contains(sy) == keepContained;
+
+            if (!keep && result == null) {
+                //Copy the kept prefix on the first removed element
+                result = new Buffer(a.size);
+
+                for (int j = 0; j < i; j++) {
+                    result.append(a.buffer.symbols[j]);
+                }
+
+            } else if (keep && result != null) {
+                result.append(sy);
+            }
+        }
+
+        if (result == null) return a;
+        return (result.used == 0) ? EmptySet : new PersistentSymbolSet(result, result.used);
+    }
+
+    /**
+     * Create a set with additional symbols that are not in the set. The
+     * symbols are appended to the shared buffer, when the set is the newest
+     * set of its buffer, otherwise the set is copied into a new buffer.
+     * @param set The set to extend
+     * @param symbols The new symbols
+     * @param count Number of new symbols
+     * @return The extended set
+     */
+    private static PersistentSymbolSet Append(PersistentSymbolSet set, Symbol[] symbols, int count) {
+        Buffer buffer = set.buffer;
+
+        if (set != EmptySet && buffer.tryAppend(set.size, symbols, count)) {
+            return new PersistentSymbolSet(buffer, set.size + count);
+        }
+
+        Buffer copy = new Buffer(Math.max(8, (set.size + count) * 2));
+
+        for (int i = 0; i < set.size; i++) {
+            copy.append(buffer.symbols[i]);
+        }
+
+        for (int i = 0; i < count; i++) {
+            copy.append(symbols[i]);
+        }
+
+        return new PersistentSymbolSet(copy, copy.used);
+    }
+
+    /**
+     * Append-only storage of the symbols. The positions map every symbol
+     * to its index, so a set contains a symbol when the index is below
+     * the size of the set. Positions are never changed once published.
+     */
+    private static final class Buffer {
+        private Symbol[] symbols;
+        private final ConcurrentHashMap<Object, Integer> positions = new ConcurrentHashMap<>();
+        private int used;
+
+        Buffer(int capacity) {
+            symbols = new Symbol[capacity];
+        }
+
+        /**
+         * Append a symbol to a buffer that is not shared yet
+         * @param sy The new symbol
+         */
+        void append(Symbol sy) {
+            if (used == symbols.length) {
+                symbols = Arrays.copyOf(symbols, Math.max(8, used * 2));
+            }
+
+            positions.put(sy, used);
+            symbols[used++] = sy;
+        }
+
+        /**
+         * Append symbols when no other set has appended after the given size
+         * @param size Size of the set that is extended
+         * @param extra The new symbols
+         * @param count Number of new symbols
+         * @return True when the symbols are appended
+         */
+        synchronized boolean tryAppend(int size, Symbol[] extra, int count) {
+            if (size != used || used + count > symbols.length) {
+                return false;
+            }
+
+            for (int i = 0; i < count; i++) {
+                positions.put(extra[i], used);
+                symbols[used++] = extra[i];
+            }
+
+            return true;
+        }
+    }
+}
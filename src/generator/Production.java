@@ -20,13 +20,14 @@ public class Production {
     public final Word RightSide;
 
     /**
-     * Create a the production rule
+     * Create a the production rule. The right side is interned,
+     * so all productions with equal right sides share one word.
      * @param leftSide The nonterminal for the left hand side
      * @param rightSide The word for the right hand side
      */
     public Production(Nonterminal leftSide, Word rightSide) {
         this.LeftSide = leftSide;
-        this.RightSide = rightSide;
+        this.RightSide = Word.Intern(rightSide);
     }
 
     @Override
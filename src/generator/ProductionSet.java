@@ -5,15 +5,32 @@
 // ---------------------------------------------------------------------
 package generator;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Set (no duplicates) to store productions for context-free grammars.
  * The toString() method will return the set in a readable format.
+ * The alternatives of every left side and the occurrences of every
+ * symbol on a right side are indexed. The index is built on the first
+ * query and dropped with every modification of the set.
  */
 public class ProductionSet extends LinkedHashSet<Production> {
 
+    /** Frozen sets can not be modified, volatile so other threads see the flag */
+    private volatile boolean frozen;
+
+    /** Lookup tables of the current productions or null */
+    private volatile Index index;
+
     /**
      * Create a new set of productions
      * @param productions Add these productions to the set
@@ -22,6 +39,125 @@ public class ProductionSet extends LinkedHashSet<Production> {
         this.addAll(Arrays.asList(productions));
     }
 
+    /**
+     * Make the set unmodifiable. All following modifications will throw
+     * an UnsupportedOperationException, so the set can be shared.
+     * @return This set
+     */
+    public ProductionSet freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Check if the set is unmodifiable
+     * @return True when the set is frozen
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Get all productions with a left side
+     * @param leftSide The nonterminal of the left side
+     * @return Unmodifiable list of the productions in the order of the set
+     */
+    public List<Production> alternatives(Symbol leftSide) {
+        return index().alternatives.getOrDefault(leftSide, Collections.emptyList());
+    }
+
+    /**
+     * Get all positions of a symbol on the right sides of the productions
+     * @param sy The symbol to find
+     * @return Unmodifiable list of the occurrences in the order of the set
+     */
+    public List<Occurrence> occurrences(Symbol sy) {
+        return index().occurrences.getOrDefault(sy, Collections.emptyList());
+    }
+
+    private Index index() {
+        Index current = index;
+
+        if (current == null) {
+            current = new Index(this);
+            index = current;
+        }
+
+        return current;
+    }
+
+    @Override
+    public boolean add(Production e) {
+        checkFrozen();
+        index = null;
+        return super.add(e);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        checkFrozen();
+        index = null;
+        return super.remove(o);
+    }
+
+    @Override
+    public void clear() {
+        checkFrozen();
+        index = null;
+        super.clear();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        checkFrozen();
+        index = null;
+        return super.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        checkFrozen();
+        index = null;
+        return super.retainAll(c);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Production> filter) {
+        checkFrozen();
+        index = null;
+        return super.removeIf(filter);
+    }
+
+    @Override
+    public Iterator<Production> iterator() {
+        Iterator<Production> iterator = super.iterator();
+
+        return new Iterator<Production>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Production next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                checkFrozen();
+                index = null;
+                iterator.remove();
+            }
+        };
+    }
+
+    private void checkFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("The set is frozen");
+        }
+    }
+
     @Override
     public String toString() {
         if (isEmpty()) {
@@ -41,4 +177,61 @@ public class ProductionSet extends LinkedHashSet<Production> {
             return sb.toString();
         }
     }
+
+    /**
+     * Position of a symbol on the right side of a production
+     */
+    public static final class Occurrence {
+
+        /** The production with the symbol on the right side */
+        public final Production Rule;
+
+        /** Index of the symbol in the right side */
+        public final int Position;
+
+        Occurrence(Production rule, int position) {
+            this.Rule = rule;
+            this.Position = position;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Occurrence)) return false;
+            Occurrence other = (Occurrence) o;
+            return this.Position == other.Position && this.Rule.equals(other.Rule);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Rule.hashCode() + Position;
+        }
+
+        @Override
+        public String toString() {
+            return Rule + " @ " + Position;
+        }
+    }
+
+    /**
+     * Lookup tables of a snapshot of the set
+     */
+    private static final class Index {
+        private final Map<Symbol, List<Production>> alternatives = new HashMap<>();
+        private final Map<Symbol, List<Occurrence>> occurrences = new HashMap<>();
+
+        Index(Iterable<Production> productions) {
+            for (Production p : productions) {
+                alternatives.computeIfAbsent(p.LeftSide, k -> new ArrayList<>()).add(p);
+
+                for (int i = 0; i < p.RightSide.length(); i++) {
+                    Symbol sy = p.RightSide.get(i);
+                    occurrences.computeIfAbsent(sy, k -> new ArrayList<>()).add(new Occurrence(p, i));
+                }
+            }
+
+            alternatives.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            occurrences.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        }
+    }
 }
@@ -23,35 +23,41 @@ public class SetGenerator {
      * @return Map with all nonterminals as keys and first sets as values
      */
     public static Map<Symbol, SymbolSet> First(Grammar grammar) {
-        Map<Symbol, SymbolSet> firstSets = new HashMap<>();
+        Map<Symbol, PersistentSymbolSet> firstSets = new HashMap<>();
+        PersistentSymbolSet emptyWordSet = PersistentSymbolSet.Of(ε);
 
         //Initialize with empty sets
         for (Symbol n : grammar.Nonterminals) {
-            firstSets.put(n, new SymbolSet());
+            firstSets.put(n, PersistentSymbolSet.EmptySet);
         }
 
         boolean setChanged;
-        SymbolSet set;
+        PersistentSymbolSet set;
 
         do {
             setChanged = false;
 
             for (Production rule : grammar.Productions) {
                 set = firstSets.get(rule.LeftSide);
+                int symbolIndex = 0;
 
                 for (Symbol sy : rule.RightSide) {
+                    symbolIndex++;
 
                     if (sy instanceof Terminal) {
-                        set = Union(set, new SymbolSet(sy));
+                        set = set.with(sy);
                         break;
 
                     } else {
-                        Nonterminal n = (Nonterminal)sy;
-                        set = Union(set, Difference(firstSets.get(n), εSet));
-
-                        if (firstSets.get(n).contains(ε)) {
-                            if (n == rule.RightSide.last()) {
-                                set = Union(set, εSet);
+                        //The persistent sets return an operand when nothing changes
+                        PersistentSymbolSet firstSet = firstSets.get(sy);
+                        set = PersistentSymbolSet.Union(set, PersistentSymbolSet.Difference(firstSet, emptyWordSet));
+
+                        //The nullable set is not used here, because ε must be
+                        //added in the same order as the first sets are growing
+                        if (firstSet.contains(ε)) {
+                            if (symbolIndex == rule.RightSide.length()) {
+                                set = set.with(ε);
                             }
 
                         } else {
@@ -68,7 +74,14 @@ public class SetGenerator {
             }
 
         } while (setChanged);
-        return firstSets;
+
+        Map<Symbol, SymbolSet> result = new HashMap<>();
+
+        for (Map.Entry<Symbol, PersistentSymbolSet> entry : firstSets.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toSymbolSet());
+        }
+
+        return result;
     }
 
     /**
@@ -98,54 +111,30 @@ public class SetGenerator {
         //Add the end-marker to the start symbol
         followSets.get(grammar.StartSymbol).add(Endmarker);
 
+        //The first sets of all suffixes do not change during the iteration
+        SuffixTable suffixes = new SuffixTable(grammar, firstSets);
         boolean setChanged;
-        SymbolSet set;
 
         do {
             setChanged = false;
 
             for (Production rule : grammar.Productions) {
+                SymbolSet leftFollow = followSets.get(rule.LeftSide);
                 int symbolIndex = 0;
 
                 for (Symbol sy : rule.RightSide) {
+                    symbolIndex++;
 
                     if (sy instanceof Nonterminal) {
-                        Nonterminal n = (Nonterminal)sy;
-                        set = followSets.get(n);
+                        SymbolSet set = followSets.get(sy);
 
                         //All symbols after the current nonterminal
-                        Word restWord = rule.RightSide.subWord(symbolIndex + 1);
-
-                        if (restWord.isEmpty()) {
-                            set = Union(set, followSets.get(rule.LeftSide));
-
-                        } else {
-                            for (Symbol item : restWord) {
+                        setChanged |= set.addAll(suffixes.first(rule, symbolIndex));
 
-                                if (item instanceof Terminal) {
-                                    set = Union(set, new SymbolSet(item));
-                                    break;
-
-                                } else {
-                                    set = Union(set, Difference(firstSets.get(item), εSet));
-
-                                    if (firstSets.get(item).contains(ε)) {
-                                        set = Union(set, followSets.get(item));
-                                    } else {
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-
-                        //Check if the set is growing
-                        if (set.size() != followSets.get(n).size()) {
-                            followSets.put(n, set);
-                            setChanged = true;
+                        if (suffixes.isNullable(rule, symbolIndex)) {
+                            setChanged |= set.addAll(leftFollow);
                         }
                     }
-
-                    symbolIndex++;
                 }
             }
 
@@ -172,72 +161,18 @@ public class SetGenerator {
      */
     public static Map<Production, SymbolSet> Predict(Grammar grammar, Map<Symbol, SymbolSet> firstSets, Map<Symbol, SymbolSet> followSets) {
         Map<Production, SymbolSet> predictSets = new HashMap<>();
+        SuffixTable suffixes = new SuffixTable(grammar, firstSets);
 
         for (Production p : grammar.Productions) {
-            predictSets.put(p, First(firstSets, p.RightSide));
-            predictSets.get(p).remove(ε);
+            SymbolSet set = Union(suffixes.first(p, 0), EmptySet);
 
-            if (Nullable(firstSets, p.RightSide)) {
-                predictSets.put(p, Union(predictSets.get(p), followSets.get(p.LeftSide)));
+            if (suffixes.isNullable(p, 0)) {
+                set.addAll(followSets.get(p.LeftSide));
             }
-        }
-
-        return predictSets;
-    }
 
-    /**
-     * Generate the first set of a word
-     * @param firstSets The precomputed first sets of the grammar
-     * @param word The word for the generation
-     * @return Set with all first symbols of the word
-     */
-    private static SymbolSet First(Map<Symbol, SymbolSet> firstSets, Word word) {
-        SymbolSet firstSet = new SymbolSet();
-
-        for (Symbol sy : word) {
-            if (sy instanceof Terminal) {
-                firstSet = Union(firstSet, new SymbolSet(sy));
-                break;
-
-            } else {
-                firstSet = Union(firstSet, Difference(firstSets.get(sy), εSet));
-
-                if (firstSets.get(sy).contains(ε)) {
-                    if (sy == word.last()) {
-                        firstSet = Union(firstSet, εSet);
-                    }
-
-                } else {
-                    break;
-                }
-            }
+            predictSets.put(p, set);
         }
 
-        return firstSet;
-    }
-
-    /**
-     * Check if a word can be transformed into the empty word
-     * @param firstSets The precomputed first sets of the grammar
-     * @param word The word for the generation
-     * @return True when the empty word can be derived
-     */
-    private static boolean Nullable(Map<Symbol, SymbolSet> firstSets, Word word) {
-        boolean nullable = true;
-
-        for (Symbol sy : word) {
-            if (sy instanceof Terminal) {
-                if (sy != ε) {
-                    nullable = false;
-                }
-
-            } else {
-                if (!firstSets.get(sy).contains(ε)) {
-                    nullable = false;
-                }
-            }
-        }
-
-        return nullable;
+        return predictSets;
     }
 }
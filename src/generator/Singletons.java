@@ -14,11 +14,11 @@ public final class Singletons {
     public static final Terminal ε = new Terminal("");
 
     /** Set that only contains the empty word */
-    public static final SymbolSet εSet = new SymbolSet(ε);
+    public static final SymbolSet εSet = new SymbolSet(ε).freeze();
 
     /** The end-of-file marker for the follow sets */
     public static final Terminal Endmarker = new Terminal("$");
 
     /** The symbol set with no elements */
-    public static final SymbolSet EmptySet = new SymbolSet();
+    public static final SymbolSet EmptySet = new SymbolSet().freeze();
 }
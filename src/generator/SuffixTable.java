@@ -0,0 +1,96 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static generator.Singletons.*;
+
+/**
+ * Contains the first sets of all suffixes of the right sides of a grammar.
+ * The sets are computed once with a backwards pass over every right side,
+ * so the follow and predict generation do not need to create and scan
+ * the suffix words again. The first sets of the suffixes never contain ε,
+ * the nullable suffixes are found with the nullable set of the grammar.
+ * The sets only depend on the right side, so productions with equal
+ * right sides share the sets of one word.
+ */
+public class SuffixTable {
+
+    /** First sets of the suffixes of every right side indexed by their begin index */
+    private final Map<Word, SymbolSet[]> suffixSets = new HashMap<>();
+
+    /** The nullable nonterminals of the grammar */
+    private final NullableSet nullable;
+
+    /**
+     * Compute the first sets of all suffixes of the right sides
+     * @param grammar The grammar for the computation
+     * @param firstSets The precomputed first sets
+     */
+    public SuffixTable(Grammar grammar, Map<Symbol, SymbolSet> firstSets) {
+        nullable = grammar.nullable();
+
+        for (Production rule : grammar.Productions) {
+            if (suffixSets.containsKey(rule.RightSide)) continue;
+            int length = rule.RightSide.length();
+            SymbolSet[] sets = new SymbolSet[length + 1];
+            sets[length] = new SymbolSet();
+
+            for (int i = length - 1; i >= 0; i--) {
+                Symbol sy = rule.RightSide.get(i);
+                SymbolSet set = new SymbolSet();
+
+                if (sy instanceof Nonterminal) {
+                    set.addAll(firstSets.get(sy));
+                    set.remove(ε);
+
+                    if (nullable.isNullable(sy)) {
+                        set.addAll(sets[i + 1]);
+                    }
+
+                } else if (sy.equals(ε)) {
+                    set.addAll(sets[i + 1]);
+
+                } else {
+                    set.add(sy);
+                }
+
+                sets[i] = set;
+            }
+
+            suffixSets.put(rule.RightSide, sets);
+        }
+    }
+
+    /**
+     * Get the first set of a suffix of a right side. The returned
+     * set is shared by all callers and must not be modified.
+     * @param rule A production of the grammar
+     * @param beginIndex Skip this number of symbols of the right side
+     * @return First set of the suffix without ε
+     */
+    public SymbolSet first(Production rule, int beginIndex) {
+        SymbolSet[] sets = suffixSets.get(rule.RightSide);
+
+        if (sets == null) {
+            throw new IllegalArgumentException("Production " + rule + " is not part of the grammar");
+        }
+
+        return sets[beginIndex];
+    }
+
+    /**
+     * Check if a suffix of a right side can be transformed into the empty word
+     * @param rule A production of the grammar
+     * @param beginIndex Skip this number of symbols of the right side
+     * @return True when the empty word can be derived from the suffix
+     */
+    public boolean isNullable(Production rule, int beginIndex) {
+        return nullable.isNullable(rule, beginIndex);
+    }
+}
@@ -16,12 +16,16 @@ public abstract class Symbol implements Comparable<Symbol> {
     /** The content of the symbol */
     protected final String text;
 
+    /** Cached hash of the content */
+    protected final int hash;
+
     /**
      * Create a new symbol and set the content of the symbol
      * @param text Content of the new symbol
      */
     public Symbol(String text) {
         this.text = text;
+        this.hash = text.hashCode();
     }
 
     @Override
@@ -34,12 +38,12 @@ public abstract class Symbol implements Comparable<Symbol> {
         if (this == o) return true;
         if (!(o instanceof Symbol)) return false;
         Symbol other = (Symbol)o;
-        return text.equals(other.text);
+        return hash == other.hash && text.equals(other.text);
     }
 
     @Override
     public int hashCode() {
-        return text.hashCode();
+        return hash;
     }
 
     @Override
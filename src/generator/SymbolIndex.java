@@ -0,0 +1,346 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static generator.Singletons.*;
+
+/**
+ * Assigns dense integer ids to the symbols and productions of a grammar.
+ * The terminal ids start with the empty word and the end-of-file marker,
+ * followed by the terminals of the grammar. The right sides of the productions
+ * are encoded as int arrays: nonterminals are stored by their id and terminals
+ * by the bitwise complement of their id. The empty word is not stored in the
+ * encoded right sides, so ε-productions have an empty array.
+ */
+public class SymbolIndex {
+
+    /** Terminal id of the empty word */
+    public static final int εId = 0;
+
+    /** Terminal id of the end-of-file marker */
+    public static final int EndmarkerId = 1;
+
+    /** The indexed grammar */
+    public final Grammar Grammar;
+
+    private final Terminal[] terminals;
+    private final Nonterminal[] nonterminals;
+    private final Production[] productions;
+
+    private final Map<Symbol, Integer> terminalIds = new HashMap<>();
+    private final Map<Symbol, Integer> nonterminalIds = new HashMap<>();
+
+    private final int[] leftSides;
+    private final int[][] rightSides;
+    private final int startSymbol;
+
+    private final int[][] alternatives;
+    private final int[][] readers;
+
+    /**
+     * Create the index for a context-free grammar
+     * @param grammar Assign ids to the symbols and productions of this grammar
+     */
+    public SymbolIndex(Grammar grammar) {
+        this.Grammar = grammar;
+
+        //The empty word and the end-marker have fixed ids
+        terminalIds.put(ε, εId);
+        terminalIds.put(Endmarker, EndmarkerId);
+
+        for (Symbol t : grammar.Terminals) {
+            terminalIds.putIfAbsent(t, terminalIds.size());
+        }
+
+        terminals = new Terminal[terminalIds.size()];
+        terminals[εId] = ε;
+        terminals[EndmarkerId] = Endmarker;
+
+        for (Symbol t : grammar.Terminals) {
+            int id = terminalIds.get(t);
+
+            if (terminals[id] == null) {
+                terminals[id] = (Terminal)t;
+            }
+        }
+
+        nonterminals = new Nonterminal[grammar.Nonterminals.size()];
+
+        for (Symbol n : grammar.Nonterminals) {
+            nonterminals[nonterminalIds.size()] = (Nonterminal)n;
+            nonterminalIds.put(n, nonterminalIds.size());
+        }
+
+        productions = grammar.Productions.toArray(new Production[0]);
+        leftSides = new int[productions.length];
+        rightSides = new int[productions.length][];
+
+        for (int p = 0; p < productions.length; p++) {
+            leftSides[p] = nonterminalId(productions[p].LeftSide);
+            rightSides[p] = encode(productions[p].RightSide);
+        }
+
+        startSymbol = nonterminalId(grammar.StartSymbol);
+        alternatives = new int[nonterminals.length][];
+        readers = new int[nonterminals.length][];
+
+        //Count the productions of every nonterminal
+        int[] alternativeCount = new int[nonterminals.length];
+        int[] readerCount = new int[nonterminals.length];
+
+        for (int p = 0; p < productions.length; p++) {
+            alternativeCount[leftSides[p]]++;
+
+            for (int i = 0; i < rightSides[p].length; i++) {
+                int code = rightSides[p][i];
+
+                if (code >= 0 && indexOf(rightSides[p], code) == i) {
+                    readerCount[code]++;
+                }
+            }
+        }
+
+        for (int n = 0; n < nonterminals.length; n++) {
+            alternatives[n] = new int[alternativeCount[n]];
+            readers[n] = new int[readerCount[n]];
+            alternativeCount[n] = 0;
+            readerCount[n] = 0;
+        }
+
+        //Fill the productions in the order of the grammar
+        for (int p = 0; p < productions.length; p++) {
+            alternatives[leftSides[p]][alternativeCount[leftSides[p]]++] = p;
+
+            for (int i = 0; i < rightSides[p].length; i++) {
+                int code = rightSides[p][i];
+
+                if (code >= 0 && indexOf(rightSides[p], code) == i) {
+                    readers[code][readerCount[code]++] = p;
+                }
+            }
+        }
+    }
+
+    private static int indexOf(int[] codes, int code) {
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] == code) return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Encode a word with the ids of this index
+     * @param word The word to encode
+     * @return Nonterminal ids and complemented terminal ids without the empty word
+     */
+    public int[] encode(Word word) {
+        int length = 0;
+
+        for (Symbol sy : word) {
+            if (!sy.equals(ε)) length++;
+        }
+
+        int[] codes = new int[length];
+        int index = 0;
+
+        for (Symbol sy : word) {
+            if (sy instanceof Nonterminal) {
+                codes[index++] = nonterminalId(sy);
+
+            } else if (!sy.equals(ε)) {
+                codes[index++] = ~terminalId(sy);
+            }
+        }
+
+        return codes;
+    }
+
+    /**
+     * Get the number of terminal ids including the empty word and the end-marker
+     * @return Number of terminal ids
+     */
+    public int terminalCount() {
+        return terminals.length;
+    }
+
+    /**
+     * Get the number of nonterminal ids
+     * @return Number of nonterminal ids
+     */
+    public int nonterminalCount() {
+        return nonterminals.length;
+    }
+
+    /**
+     * Get the number of production ids
+     * @return Number of production ids
+     */
+    public int productionCount() {
+        return productions.length;
+    }
+
+    /**
+     * Get the id of a terminal symbol
+     * @param sy The terminal symbol
+     * @return Id of the terminal
+     */
+    public int terminalId(Symbol sy) {
+        Integer id = terminalIds.get(sy);
+
+        if (id == null || !(sy instanceof Terminal)) {
+            throw new IllegalArgumentException("Terminal " + sy + " is not part of the grammar");
+        }
+
+        return id;
+    }
+
+    /**
+     * Get the id of a nonterminal symbol
+     * @param sy The nonterminal symbol
+     * @return Id of the nonterminal
+     */
+    public int nonterminalId(Symbol sy) {
+        Integer id = nonterminalIds.get(sy);
+
+        if (id == null || !(sy instanceof Nonterminal)) {
+            throw new IllegalArgumentException("Nonterminal " + sy + " is not part of the grammar");
+        }
+
+        return id;
+    }
+
+    /**
+     * Get the terminal symbol of an id
+     * @param id Id of the terminal
+     * @return The terminal symbol
+     */
+    public Terminal terminal(int id) {
+        return terminals[id];
+    }
+
+    /**
+     * Get the nonterminal symbol of an id
+     * @param id Id of the nonterminal
+     * @return The nonterminal symbol
+     */
+    public Nonterminal nonterminal(int id) {
+        return nonterminals[id];
+    }
+
+    /**
+     * Get the production of an id
+     * @param id Id of the production
+     * @return The production rule
+     */
+    public Production production(int id) {
+        return productions[id];
+    }
+
+    /**
+     * Get the nonterminal id of the left side of a production
+     * @param production Id of the production
+     * @return Id of the left side nonterminal
+     */
+    public int leftSide(int production) {
+        return leftSides[production];
+    }
+
+    /**
+     * Get the encoded right side of a production. The
+     * returned array is shared and must not be modified.
+     * @param production Id of the production
+     * @return Nonterminal ids and complemented terminal ids
+     */
+    public int[] rightSide(int production) {
+        return rightSides[production];
+    }
+
+    /**
+     * Get all productions with a nonterminal on the left side. The
+     * returned array is shared and must not be modified.
+     * @param nonterminal Id of the nonterminal
+     * @return Ids of the productions in the order of the grammar
+     */
+    public int[] alternatives(int nonterminal) {
+        return alternatives[nonterminal];
+    }
+
+    /**
+     * Get all productions with a nonterminal on the right side. Every
+     * production is listed once, even when the nonterminal occurs
+     * multiple times. The returned array is shared and must not be modified.
+     * @param nonterminal Id of the nonterminal
+     * @return Ids of the productions in the order of the grammar
+     */
+    public int[] readers(int nonterminal) {
+        return readers[nonterminal];
+    }
+
+    /**
+     * Get the nonterminal id of the start symbol
+     * @return Id of the start symbol
+     */
+    public int startSymbol() {
+        return startSymbol;
+    }
+
+    /**
+     * Create a new empty bitset that can store all terminals
+     * @return Bitset for terminal ids
+     */
+    public long[] createTerminalSet() {
+        return BitSets.Create(terminals.length);
+    }
+
+    /**
+     * Convert a terminal bitset into a symbol set
+     * @param set Bitset with terminal ids
+     * @return Symbol set with the terminals ordered by their ids
+     */
+    public SymbolSet toSymbolSet(long[] set) {
+        SymbolSet symbolSet = new SymbolSet();
+
+        for (int id = BitSets.NextId(set, 0); id >= 0; id = BitSets.NextId(set, id + 1)) {
+            symbolSet.add(terminals[id]);
+        }
+
+        return symbolSet;
+    }
+
+    /**
+     * Convert the terminal bitsets of all nonterminals into symbol sets
+     * @param sets Bitsets indexed by the nonterminal ids
+     * @return Map with all nonterminals as keys and symbol sets as values
+     */
+    public Map<Symbol, SymbolSet> toSymbolSets(long[][] sets) {
+        Map<Symbol, SymbolSet> symbolSets = new HashMap<>();
+
+        for (int n = 0; n < nonterminals.length; n++) {
+            symbolSets.put(nonterminals[n], toSymbolSet(sets[n]));
+        }
+
+        return symbolSets;
+    }
+
+    /**
+     * Convert the terminal bitsets of all productions into symbol sets
+     * @param sets Bitsets indexed by the production ids
+     * @return Map with all productions as keys and symbol sets as values
+     */
+    public Map<Production, SymbolSet> toProductionSets(long[][] sets) {
+        Map<Production, SymbolSet> symbolSets = new HashMap<>();
+
+        for (int p = 0; p < productions.length; p++) {
+            symbolSets.put(productions[p], toSymbolSet(sets[p]));
+        }
+
+        return symbolSets;
+    }
+}
@@ -9,6 +9,7 @@ import java.util.*;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
@@ -18,6 +19,9 @@ import java.util.stream.Collector;
  */
 public class SymbolSet extends LinkedHashSet<Symbol> {
 
+    /** Frozen sets can not be modified, volatile so other threads see the flag */
+    private volatile boolean frozen;
+
     /**
      * Create a new set of symbols
      * @param symbols Add these symbols to the set
@@ -26,6 +30,84 @@ public class SymbolSet extends LinkedHashSet<Symbol> {
         this.addAll(Arrays.asList(symbols));
     }
 
+    /**
+     * Make the set unmodifiable. All following modifications will throw
+     * an UnsupportedOperationException, so the set can be shared.
+     * @return This set
+     */
+    public SymbolSet freeze() {
+        frozen = true;
+        return this;
+    }
+
+    /**
+     * Check if the set is unmodifiable
+     * @return True when the set is frozen
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public boolean add(Symbol e) {
+        checkFrozen();
+        return super.add(e);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        checkFrozen();
+        return super.remove(o);
+    }
+
+    @Override
+    public void clear() {
+        checkFrozen();
+        super.clear();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        checkFrozen();
+        return super.removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        checkFrozen();
+        return super.retainAll(c);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Symbol> filter) {
+        checkFrozen();
+        return super.removeIf(filter);
+    }
+
+    @Override
+    public Iterator<Symbol> iterator() {
+        Iterator<Symbol> iterator = super.iterator();
+        if (!frozen) return iterator;
+
+        return new Iterator<Symbol>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Symbol next() {
+                return iterator.next();
+            }
+        };
+    }
+
+    private void checkFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("The set is frozen");
+        }
+    }
+
     @Override
     public String toString() {
 
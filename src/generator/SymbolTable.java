@@ -0,0 +1,132 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static generator.Singletons.*;
+
+/**
+ * Interns the symbols of a grammar. The table contains exactly one
+ * instance for every terminal and nonterminal name, so the symbols of
+ * a grammar can be compared by identity. Every interned symbol gets a
+ * dense ordinal, which can be used to index side tables with arrays.
+ * The ordinals are stored in the table, so one symbol instance can be
+ * interned in many tables. The empty word and the end-marker are shared
+ * by all tables and have the ordinals 0 and 1. Symbols that are created
+ * outside of a table are still equal to the interned symbols with the
+ * same name. A table is not synchronized, it must not be modified
+ * after it was handed to a grammar.
+ */
+public class SymbolTable {
+
+    /** Ordinal of the empty word in all tables */
+    public static final int εOrdinal = 0;
+
+    /** Ordinal of the end-of-file marker in all tables */
+    public static final int EndmarkerOrdinal = 1;
+
+    private final Map<String, Integer> terminals = new HashMap<>();
+    private final Map<String, Integer> nonterminals = new HashMap<>();
+    private Symbol[] symbols = new Symbol[16];
+    private int size;
+
+    /**
+     * Create a new table that only contains the empty word and the end-marker
+     */
+    public SymbolTable() {
+        add(ε);
+        add(Endmarker);
+    }
+
+    /**
+     * Get the interned terminal of a name
+     * @param text Content of the terminal
+     * @return The only terminal instance of the table with this name
+     */
+    public Terminal terminal(String text) {
+        Integer ordinal = terminals.get(text);
+        return (Terminal)((ordinal != null) ? symbols[ordinal] : add(new Terminal(text)));
+    }
+
+    /**
+     * Get the interned nonterminal of a name
+     * @param text Content of the nonterminal
+     * @return The only nonterminal instance of the table with this name
+     */
+    public Nonterminal nonterminal(String text) {
+        Integer ordinal = nonterminals.get(text);
+        return (Nonterminal)((ordinal != null) ? symbols[ordinal] : add(new Nonterminal(text)));
+    }
+
+    /**
+     * Get the interned instance of a symbol. When the name is
+     * not interned yet, the symbol itself is added to the table.
+     * @param sy The symbol to intern
+     * @return The only instance of the table that is equal to the symbol
+     */
+    public Symbol intern(Symbol sy) {
+        Integer ordinal = names(sy).get(sy.text);
+        return (ordinal != null) ? symbols[ordinal] : add(sy);
+    }
+
+    /**
+     * Check if a symbol is an interned instance of this table
+     * @param sy The symbol to check
+     * @return True when the symbol is owned by the table
+     */
+    public boolean contains(Symbol sy) {
+        Integer ordinal = names(sy).get(sy.text);
+        return ordinal != null && symbols[ordinal] == sy;
+    }
+
+    /**
+     * Get the ordinal of a symbol in this table
+     * @param sy The symbol with any instance
+     * @return The ordinal of the equal interned symbol or -1
+     */
+    public int ordinal(Symbol sy) {
+        Integer ordinal = names(sy).get(sy.text);
+        return (ordinal == null) ? -1 : ordinal;
+    }
+
+    /**
+     * Get the symbol of an ordinal
+     * @param ordinal The ordinal of the symbol
+     * @return The interned symbol
+     */
+    public Symbol symbol(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IllegalArgumentException("Unknown ordinal " + ordinal);
+        }
+
+        return symbols[ordinal];
+    }
+
+    /**
+     * Get the number of interned symbols
+     * @return Number of symbols including the empty word and the end-marker
+     */
+    public int size() {
+        return size;
+    }
+
+    private Map<String, Integer> names(Symbol sy) {
+        return (sy instanceof Nonterminal) ? nonterminals : terminals;
+    }
+
+    private Symbol add(Symbol sy) {
+        if (size == symbols.length) {
+            symbols = Arrays.copyOf(symbols, size * 2);
+        }
+
+        names(sy).put(sy.text, size);
+        symbols[size++] = sy;
+        return sy;
+    }
+}
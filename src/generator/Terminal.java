@@ -24,6 +24,6 @@ public class Terminal extends Symbol {
         if (this == o) return true;
         if (!(o instanceof Terminal)) return false;
         Terminal other = (Terminal)o;
-        return text.equals(other.text);
+        return hash == other.hash && text.equals(other.text);
     }
 }
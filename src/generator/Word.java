@@ -5,26 +5,84 @@
 // ---------------------------------------------------------------------
 package generator;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.function.Consumer;
 
 /**
  * Represents words of context-free grammars. Words are lists
  * of symbols. A symbol can be a terminal or nonterminal.
+ * Words are views on a range of a symbol array, so the sub words
+ * share the symbols of the original word without any copy.
+ * Words with the same symbol instances can be shared with the intern
+ * pool, which only holds weak references, so unused words are still
+ * garbage collected.
  */
 public class Word implements Comparable<Word>, Iterable<Symbol> {
 
-    /** Symbols of the word */
+    /** Canonical instances of all interned words */
+    private static final InternPool Pool = new InternPool();
+
+    /** Symbols of the word and maybe other words */
     private final Symbol[] symbols;
 
+    /** Index of the first symbol of the word */
+    private final int offset;
+
+    /** Number of symbols of the word */
+    private final int length;
+
+    /** Cached hash of the symbols, 0 when not computed yet */
+    private int hash;
+
     /**
-     * Create a new word with a list of symbols.
+     * Create a new word with a list of symbols. The symbols are copied,
+     * so later changes of the array do not change the word.
      * @param symbols The symbols for the new word
      */
     public Word(Symbol... symbols) {
+        this(symbols.clone(), 0, symbols.length);
+    }
+
+    /**
+     * Create a word that uses an array without a copy. The array
+     * must not be changed after the call.
+     * @param symbols The symbols for the new word
+     * @return Word with the given array
+     */
+    static Word Adopt(Symbol[] symbols) {
+        return new Word(symbols, 0, symbols.length);
+    }
+
+    /**
+     * Create a view on a range of a symbol array
+     * @param symbols The shared symbols
+     * @param offset Index of the first symbol
+     * @param length Number of symbols
+     */
+    private Word(Symbol[] symbols, int offset, int length) {
         this.symbols = symbols;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Get the canonical instance of a word. Words with the same symbol
+     * instances are interned to the same word as long as this word is
+     * reachable. Equal symbols of different symbol tables are not
+     * shared, so the symbols of an interned word are never replaced.
+     * @param word The word to intern
+     * @return The interned word with the same symbols
+     */
+    public static Word Intern(Word word) {
+        return Pool.intern(word);
     }
 
     /**
@@ -32,12 +90,50 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
      * @return True when the word has no symbols
      */
     public boolean isEmpty() {
-        return symbols.length == 0;
+        return length == 0;
+    }
+
+    /**
+     * Get the number of symbols of the word
+     * @return Number of symbols
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Get a symbol of the word
+     * @param index Position of the symbol
+     * @return The symbol at the position
+     */
+    public Symbol get(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+
+        return symbols[offset + index];
     }
 
+    /**
+     * Compare the words symbol by symbol. A prefix of a word is ordered first.
+     * @param o The word to compare
+     * @return Negative, zero or positive when this word is less, equal or greater
+     */
     @Override
     public int compareTo(Word o) {
-        return this.toString().compareTo(o.toString());
+        int common = Math.min(length, o.length);
+
+        for (int i = 0; i < common; i++) {
+            Symbol a = symbols[offset + i];
+            Symbol b = o.symbols[o.offset + i];
+
+            if (a != b) {
+                int result = a.compareTo(b);
+                if (result != 0) return result;
+            }
+        }
+
+        return length - o.length;
     }
 
     @Override
@@ -45,26 +141,50 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
         if (this == o) return true;
         if (!(o instanceof Word)) return false;
         Word other = (Word)o;
-        return Arrays.equals(symbols, other.symbols);
+
+        if (length != other.length || (hash != 0 && other.hash != 0 && hash != other.hash)) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (!symbols[offset + i].equals(other.symbols[other.offset + i])) return false;
+        }
+
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(symbols);
+        int h = hash;
+
+        if (h == 0) {
+            h = 1;
+
+            //Same hash as Arrays.hashCode of the symbols
+            for (int i = 0; i < length; i++) {
+                Symbol sy = symbols[offset + i];
+                h = 31 * h + (sy == null ? 0 : sy.hashCode());
+            }
+
+            hash = h;
+        }
+
+        return h;
     }
 
     @Override
     public Iterator<Symbol> iterator() {
         return new Iterator<>() {
-            int index = 0;
+            int index = offset;
 
             @Override
             public boolean hasNext() {
-                return index < symbols.length;
+                return index < offset + length;
             }
 
             @Override
             public Symbol next() {
+                if (index >= offset + length) throw new NoSuchElementException();
                 return symbols[index++];
             }
         };
@@ -72,8 +192,8 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
 
     @Override
     public void forEach(Consumer<? super Symbol> action) {
-        for (Symbol symbol : symbols) {
-            action.accept(symbol);
+        for (int i = offset; i < offset + length; i++) {
+            action.accept(symbols[i]);
         }
     }
 
@@ -85,7 +205,7 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
         if (isEmpty()) {
             throw new IllegalStateException("First called on an empty word");
         } else {
-            return symbols[0];
+            return symbols[offset];
         }
     }
 
@@ -97,7 +217,7 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
         if (isEmpty()) {
             throw new IllegalStateException("Last called on an empty word");
         } else {
-            return symbols[symbols.length - 1];
+            return symbols[offset + length - 1];
         }
     }
 
@@ -113,7 +233,7 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
             throw new NoSuchElementException("Symbol " + sy.toString() + " not found");
 
         } else {
-            return new Word(Arrays.copyOfRange(symbols, 0, index));
+            return new Word(symbols, offset, index);
         }
     }
 
@@ -129,7 +249,7 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
             throw new NoSuchElementException("Symbol " + sy.toString() + " not found");
 
         } else {
-            return new Word(Arrays.copyOfRange(symbols, indexOf(sy) + 1, symbols.length));
+            return new Word(symbols, offset + index + 1, length - index - 1);
         }
     }
 
@@ -139,12 +259,20 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
      * @return Word that starts with the symbol of beginIndex
      */
     public Word subWord(int beginIndex) {
-        return new Word(Arrays.copyOfRange(symbols, beginIndex, symbols.length));
+        if (beginIndex < 0) {
+            throw new IndexOutOfBoundsException("Negative begin index " + beginIndex);
+        }
+
+        if (beginIndex > length) {
+            throw new IllegalArgumentException(beginIndex + " > " + length);
+        }
+
+        return new Word(symbols, offset + beginIndex, length - beginIndex);
     }
 
     private int indexOf(Symbol sy) {
-        for (int i = 0; i < symbols.length; i++) {
-            if (symbols[i] == sy) return i;
+        for (int i = 0; i < length; i++) {
+            if (symbols[offset + i].equals(sy)) return i;
         }
 
         return -1;
@@ -154,12 +282,12 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
     public String toString() {
         StringBuilder sb = new StringBuilder();
 
-        if (symbols == null || symbols.length == 0) {
+        if (length == 0) {
             return "";
 
         } else {
-            for (Symbol sy : symbols) {
-                sb.append(sy);
+            for (int i = offset; i < offset + length; i++) {
+                sb.append(symbols[i]);
                 sb.append(" ");
             }
 
@@ -168,4 +296,116 @@ public class Word implements Comparable<Word>, Iterable<Symbol> {
 
         return sb.toString();
     }
+
+    /**
+     * Get a word that only references its own symbols
+     * @return This word or a copy when the word is a slice of a larger array
+     */
+    private Word compact() {
+        if (offset == 0 && length == symbols.length) {
+            return this;
+        }
+
+        return new Word(Arrays.copyOfRange(symbols, offset, offset + length), 0, length);
+    }
+
+    /**
+     * Check if two words have the same symbol instances
+     * @param other The word to compare
+     * @return True when all symbols are identical
+     */
+    private boolean sameSymbols(Word other) {
+        if (length != other.length) return false;
+
+        for (int i = 0; i < length; i++) {
+            if (symbols[offset + i] != other.symbols[other.offset + i]) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Hash of the symbol instances of the word
+     * @return Hash that is compatible with sameSymbols
+     */
+    private int identityHash() {
+        int h = 1;
+
+        for (int i = offset; i < offset + length; i++) {
+            h = 31 * h + System.identityHashCode(symbols[i]);
+        }
+
+        return h;
+    }
+
+    /**
+     * Weak hash table of the interned words. The table is split into
+     * segments with their own lock and reference queue, so threads that
+     * intern different words rarely wait for each other. The entries of
+     * collected words are removed on the next access of their segment.
+     */
+    private static final class InternPool {
+        private static final int SEGMENTS = 64;
+
+        private final Segment[] segments = new Segment[SEGMENTS];
+
+        InternPool() {
+            for (int i = 0; i < SEGMENTS; i++) {
+                segments[i] = new Segment();
+            }
+        }
+
+        Word intern(Word word) {
+            int hash = word.identityHash();
+
+            //Spread the high bits, the identity hashes differ mostly in the low bits
+            Segment segment = segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+            return segment.intern(word, hash);
+        }
+
+        private static final class Segment {
+            private final Map<Integer, List<Entry>> buckets = new HashMap<>();
+            private final ReferenceQueue<Word> queue = new ReferenceQueue<>();
+
+            synchronized Word intern(Word word, int hash) {
+                purge();
+
+                List<Entry> bucket = buckets.computeIfAbsent(hash, k -> new ArrayList<>(1));
+
+                for (Entry entry : bucket) {
+                    Word canonical = entry.get();
+
+                    if (canonical != null && canonical.sameSymbols(word)) {
+                        return canonical;
+                    }
+                }
+
+                //A slice would keep the whole array of its original word reachable
+                Word canonical = word.compact();
+                bucket.add(new Entry(canonical, hash, queue));
+                return canonical;
+            }
+
+            private void purge() {
+                for (Object ref = queue.poll(); ref != null; ref = queue.poll()) {
+                    Entry entry = (Entry)ref;
+                    List<Entry> bucket = buckets.get(entry.hash);
+
+                    if (bucket != null) {
+                        bucket.remove(entry);
+                        if (bucket.isEmpty()) buckets.remove(entry.hash);
+                    }
+                }
+            }
+        }
+
+        private static final class Entry extends WeakReference<Word> {
+            private final int hash;
+
+            Entry(Word word, int hash, ReferenceQueue<Word> queue) {
+                super(word, queue);
+                this.hash = hash;
+            }
+        }
+    }
 }
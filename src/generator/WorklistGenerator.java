@@ -0,0 +1,219 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import java.util.Map;
+
+import static generator.SymbolIndex.*;
+
+/**
+ * Generation of the first and follow sets with a worklist.
+ * Instead of sweeping over all productions until no set changes,
+ * only the productions that read a growing set are visited again.
+ * The sets are stored as bitsets like in the BitSetGenerator.
+ */
+public class WorklistGenerator {
+
+    /**
+     * Generate the first sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all nonterminals as keys and first sets as values
+     */
+    public static Map<Symbol, SymbolSet> First(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        return index.toSymbolSets(First(index));
+    }
+
+    /**
+     * Generate the follow sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all nonterminals as keys and follow sets as values
+     */
+    public static Map<Symbol, SymbolSet> Follow(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        return index.toSymbolSets(Follow(index, First(index)));
+    }
+
+    /**
+     * Generate the predict sets for a context-free grammar
+     * @param grammar The grammar for the generation
+     * @return Map with all productions as keys and predict sets as values
+     */
+    public static Map<Production, SymbolSet> Predict(Grammar grammar) {
+        SymbolIndex index = new SymbolIndex(grammar);
+        long[][] firstSets = First(index);
+        return index.toProductionSets(BitSetGenerator.Predict(index, firstSets, Follow(index, firstSets)));
+    }
+
+    /**
+     * Generate the first sets of all nonterminals. When the first set of
+     * a nonterminal grows, all productions with this nonterminal on the
+     * right side are added to the worklist again.
+     * @param index The indexed grammar for the generation
+     * @return Bitsets with terminal ids indexed by the nonterminal ids
+     */
+    public static long[][] First(SymbolIndex index) {
+        long[][] firstSets = new long[index.nonterminalCount()][];
+
+        //Initialize with empty sets
+        for (int n = 0; n < firstSets.length; n++) {
+            firstSets[n] = index.createTerminalSet();
+        }
+
+        Worklist worklist = new Worklist(index.productionCount());
+
+        while (!worklist.isEmpty()) {
+            int p = worklist.poll();
+            int leftSide = index.leftSide(p);
+            long[] set = firstSets[leftSide];
+            boolean setChanged = false;
+            boolean nullable = true;
+
+            for (int code : index.rightSide(p)) {
+
+                if (code < 0) {
+                    setChanged |= BitSets.Add(set, ~code);
+                    nullable = false;
+                    break;
+
+                } else {
+                    setChanged |= BitSets.UnionWithout(set, firstSets[code], εId);
+
+                    if (!BitSets.Contains(firstSets[code], εId)) {
+                        nullable = false;
+                        break;
+                    }
+                }
+            }
+
+            if (nullable) {
+                setChanged |= BitSets.Add(set, εId);
+            }
+
+            //Visit all productions that read the grown set
+            if (setChanged) {
+                worklist.addAll(index.readers(leftSide));
+            }
+        }
+
+        return firstSets;
+    }
+
+    /**
+     * Generate the follow sets of all nonterminals with the precomputed
+     * first sets. When the follow set of a nonterminal grows, all
+     * productions of this nonterminal are added to the worklist again.
+     * @param index The indexed grammar for the generation
+     * @param firstSets The precomputed first sets
+     * @return Bitsets with terminal ids indexed by the nonterminal ids
+     */
+    public static long[][] Follow(SymbolIndex index, long[][] firstSets) {
+        long[][] followSets = new long[index.nonterminalCount()][];
+
+        //Initialize with empty sets
+        for (int n = 0; n < followSets.length; n++) {
+            followSets[n] = index.createTerminalSet();
+        }
+
+        //Add the end-marker to the start symbol
+        BitSets.Add(followSets[index.startSymbol()], EndmarkerId);
+
+        Worklist worklist = new Worklist(index.productionCount());
+
+        while (!worklist.isEmpty()) {
+            int p = worklist.poll();
+            int[] rightSide = index.rightSide(p);
+
+            for (int i = 0; i < rightSide.length; i++) {
+                if (rightSide[i] < 0) continue;
+
+                long[] set = followSets[rightSide[i]];
+                boolean setChanged = false;
+                boolean nullable = true;
+
+                //All symbols after the current nonterminal
+                for (int j = i + 1; j < rightSide.length; j++) {
+                    int code = rightSide[j];
+
+                    if (code < 0) {
+                        setChanged |= BitSets.Add(set, ~code);
+                        nullable = false;
+                        break;
+
+                    } else {
+                        setChanged |= BitSets.UnionWithout(set, firstSets[code], εId);
+
+                        if (!BitSets.Contains(firstSets[code], εId)) {
+                            nullable = false;
+                            break;
+                        }
+                    }
+                }
+
+                if (nullable) {
+                    setChanged |= BitSets.Union(set, followSets[index.leftSide(p)]);
+                }
+
+                //Visit all productions that pass the grown set to their right side
+                if (setChanged) {
+                    worklist.addAll(index.alternatives(rightSide[i]));
+                }
+            }
+        }
+
+        return followSets;
+    }
+
+    /**
+     * Queue of production ids where every production is
+     * at most once in the queue. The queue is a ring buffer,
+     * so no memory is allocated after the construction.
+     */
+    private static class Worklist {
+        private final int[] queue;
+        private final boolean[] queued;
+        private int head;
+        private int size;
+
+        /**
+         * Create a new worklist that contains all productions
+         * @param productionCount Number of production ids
+         */
+        Worklist(int productionCount) {
+            queue = new int[Math.max(productionCount, 1)];
+            queued = new boolean[productionCount];
+
+            for (int p = 0; p < productionCount; p++) {
+                queue[p] = p;
+                queued[p] = true;
+            }
+
+            size = productionCount;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int poll() {
+            int p = queue[head];
+            head = (head + 1) % queue.length;
+            queued[p] = false;
+            size--;
+            return p;
+        }
+
+        void addAll(int[] productions) {
+            for (int p : productions) {
+                if (!queued[p]) {
+                    queue[(head + size) % queue.length] = p;
+                    queued[p] = true;
+                    size++;
+                }
+            }
+        }
+    }
+}
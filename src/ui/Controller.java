@@ -16,7 +16,6 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
 
 import static generator.GrammarParser.*;
-import static generator.SetGenerator.*;
 
 public class Controller {
     public TextArea GrammarBox;
@@ -59,6 +58,9 @@ public class Controller {
     /** Additionally display the right side of production rules */
     final boolean showFullProductions = true;
 
+    /** Analyses of the recently calculated grammars */
+    static final MemoryAnalysisCache ANALYSIS_CACHE = new MemoryAnalysisCache(64L << 20);
+
     /**
      * Start the grammar parsing, generate all sets,
      * switch to the result page and show the sets
@@ -70,14 +72,18 @@ public class Controller {
         ResultScrollPane.setVisible(true);
         BackBtn.setVisible(true);
 
-        String[] grammarLines = GrammarBox.getText().split("\n");
+        //The text is already in memory, so the lines are parsed directly
+        String[] grammarLines = GrammarBox.getText().split("\\R");
         Grammar grammar = ParseGrammar(grammarLines);
+
         System.out.println("Grammar:");
         System.out.println(grammar.toString());
 
-        Map<Symbol, SymbolSet> firstSets = First(grammar);
-        Map<Symbol, SymbolSet> followSets = Follow(grammar, firstSets);
-        Map<Production, SymbolSet> predictSets = Predict(grammar, firstSets, followSets);
+        //Equal grammars are only analyzed once
+        Analysis analysis = ANALYSIS_CACHE.get(grammar);
+        Map<Symbol, SymbolSet> firstSets = analysis.First;
+        Map<Symbol, SymbolSet> followSets = analysis.Follow;
+        Map<Production, SymbolSet> predictSets = analysis.Predict;
 
         AddHeadlines(FirstFollowGrid, "Symbol", "FIRST", "FOLLOW");
 
@@ -85,8 +91,7 @@ public class Controller {
             String symbol = n.toString();
 
             if (showFullProductions) {
-                symbol += " -> " + grammar.Productions.stream()
-                        .filter(p -> p.LeftSide == n)
+                symbol += " -> " + grammar.Productions.alternatives(n).stream()
                         .map(p -> p.RightSide.toString())
                         .collect(Collectors.joining(" | "));
             }
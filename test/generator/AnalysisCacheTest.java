@@ -0,0 +1,166 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static generator.GrammarParser.ParseGrammar;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisCacheTest {
+
+    private static final String[] Lines = new String[]{
+            "S -> A B C",
+            "A -> a | ε",
+            "B -> b | C",
+            "C -> c | ε"
+    };
+
+    private static final String[] ReorderedLines = new String[]{
+            "S   ->  A B C",
+            "C -> ε | c",
+            "B -> C|b",
+            "A -> ε | a"
+    };
+
+    private static void DeleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void testFingerprint() {
+        Grammar g = ParseGrammar(Lines);
+
+        assertEquals(64, g.fingerprint().length());
+        assertEquals(g.fingerprint(), ParseGrammar(ReorderedLines).fingerprint());
+        assertNotEquals(g.fingerprint(), ParseGrammar(new String[]{ "S -> A B C", "A -> a" }).fingerprint());
+        assertNotEquals(g.fingerprint(), ParseGrammar(new String[]{ "S -> A B C", "A -> a | ε", "B -> b | C", "C -> c" }).fingerprint());
+
+        //Terminals and nonterminals with the same name are different symbols
+        assertNotEquals(ParseGrammar(new String[]{ "S -> x" }).fingerprint(), ParseGrammar(new String[]{ "S -> x", "x -> a" }).fingerprint());
+    }
+
+    @Test
+    void testCachedAnalysis() throws IOException {
+        Path directory = Files.createTempDirectory("analysis");
+
+        try {
+            AnalysisCache cache = new AnalysisCache(directory.resolve("cache"));
+            Grammar g = ParseGrammar(Lines);
+
+            assertNull(cache.load(g));
+            Analysis computed = cache.get(g);
+            assertTrue(Files.exists(cache.path(g)));
+
+            //A reordered grammar uses the same entry
+            Grammar reordered = ParseGrammar(ReorderedLines);
+            Analysis loaded = cache.load(reordered);
+            assertNotNull(loaded);
+            assertSame(reordered, loaded.Grammar);
+            assertEquals(SetGenerator.First(reordered), loaded.First);
+            assertEquals(SetGenerator.Follow(reordered), loaded.Follow);
+            assertEquals(SetGenerator.Predict(reordered), loaded.Predict);
+            assertEquals(computed.Predict, cache.get(g).Predict);
+            assertThrows(UnsupportedOperationException.class, () -> loaded.First.get(reordered.StartSymbol).clear());
+
+            for (Production p : reordered.Productions) {
+                assertTrue(loaded.Predict.containsKey(p));
+            }
+
+        } finally {
+            DeleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void testInvalidEntry() throws IOException {
+        Path directory = Files.createTempDirectory("analysis");
+
+        try {
+            AnalysisCache cache = new AnalysisCache(directory);
+            Grammar g = ParseGrammar(Lines);
+            cache.get(g);
+
+            //A corrupted entry is analyzed again and replaced
+            byte[] data = Files.readAllBytes(cache.path(g));
+            data[data.length / 2] ^= 0x55;
+            Files.write(cache.path(g), data);
+
+            assertNull(cache.load(g));
+            assertEquals(SetGenerator.Follow(g), cache.get(g).Follow);
+            assertNotNull(cache.load(g));
+
+            //An entry of another grammar is never used
+            Grammar other = ParseGrammar(new String[]{ "S -> a" });
+            Files.copy(cache.path(g), cache.path(other));
+            assertNull(cache.load(other));
+
+            try (Stream<Path> files = Files.list(directory)) {
+                assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+            }
+
+        } finally {
+            DeleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void testForeignTableSymbols() throws IOException {
+        Path directory = Files.createTempDirectory("analysis");
+
+        try {
+            AnalysisCache cache = new AnalysisCache(directory);
+            Grammar g = ParseGrammar(Lines);
+
+            //The table of the grammar contains symbols that are not part of the grammar
+            SymbolTable table = new SymbolTable();
+            table.terminal("unused");
+            table.nonterminal("Unused");
+            Grammar shared = new Grammar(new SymbolSet(g.Nonterminals.toArray(new Symbol[0])),
+                    new SymbolSet(g.Terminals.toArray(new Symbol[0])), new ProductionSet(g.Productions.toArray(new Production[0])),
+                    g.StartSymbol, table);
+
+            cache.get(shared);
+            Analysis loaded = cache.load(ParseGrammar(Lines));
+            assertNotNull(loaded);
+            assertEquals(SetGenerator.Predict(g), loaded.Predict);
+
+        } finally {
+            DeleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void testFailedStore() throws IOException {
+        Path directory = Files.createTempDirectory("analysis");
+
+        try {
+            //A full or read-only cache does not fail the analysis
+            AnalysisCache cache = new AnalysisCache(directory) {
+                @Override
+                public void store(Analysis analysis) throws IOException {
+                    throw new IOException("The cache is full");
+                }
+            };
+
+            Grammar g = ParseGrammar(Lines);
+            assertEquals(SetGenerator.Predict(g), cache.get(g).Predict);
+            assertNull(cache.load(g));
+
+        } finally {
+            DeleteDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static generator.GrammarParser.ParseGrammar;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAnalyzerTest {
+
+    private static void Write(Path file, String... lines) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    private static void DeleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toArray(Path[]::new)) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void testDirectory() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("grammars");
+
+        try {
+            Write(directory.resolve("expr.cfg"), "E -> T + E | T", "T -> id | ( E )");
+            Write(directory.resolve("nested/list.cfg"), "S -> a S | ε");
+            Write(directory.resolve("invalid.cfg"), "S -> a", "-> b");
+
+            List<Path> files = BatchAnalyzer.GrammarFiles(directory);
+            assertEquals(3, files.size());
+
+            List<BatchAnalyzer.Result> results = new ArrayList<>();
+            BatchAnalyzer.Summary summary = new BatchAnalyzer(2).analyze(files, results::add);
+
+            assertEquals(3, results.size());
+            assertEquals(2, summary.Grammars);
+            assertEquals(1, summary.Failures);
+            assertEquals(6, summary.Productions);
+            assertTrue(summary.grammarsPerSecond() > 0);
+
+            for (BatchAnalyzer.Result result : results) {
+                if (result.File.endsWith("invalid.cfg")) {
+                    assertNull(result.Analysis);
+                    assertTrue(result.Error instanceof IllegalArgumentException);
+                } else {
+                    assertNull(result.Error);
+                    Grammar g = ParseGrammar(result.File);
+                    assertEquals(g.toString(), result.Grammar.toString());
+                    assertEquals(BatchAnalyzer.Format(g, Analysis.Of(g)), BatchAnalyzer.Format(result.Grammar, result.Analysis));
+                }
+            }
+
+        } finally {
+            DeleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void testFormat() {
+        Grammar g = ParseGrammar(new String[]{ "S -> a S | ε" });
+        String[] lines = BatchAnalyzer.Format(g, Analysis.Of(g)).split("\n");
+
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("FIRST(S) = "));
+        assertTrue(lines[1].startsWith("FOLLOW(S) = "));
+        assertTrue(lines[2].startsWith("PREDICT(S -> a S) = "));
+    }
+
+    @Test
+    void testCachedOrder() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("grammars");
+
+        try {
+            Write(directory.resolve("one.cfg"), "S -> A B", "A -> a", "B -> b");
+            Write(directory.resolve("two.cfg"), "S -> A B", "B -> b", "A -> a");
+
+            //Both files hit the same cached analysis
+            MemoryAnalysisCache cache = new MemoryAnalysisCache(1 << 20);
+            List<BatchAnalyzer.Result> results = new ArrayList<>();
+            new BatchAnalyzer(1, cache::get).analyze(BatchAnalyzer.GrammarFiles(directory), results::add);
+            assertEquals(1, cache.hitCount());
+
+            for (BatchAnalyzer.Result result : results) {
+                Grammar g = ParseGrammar(result.File);
+                assertEquals(BatchAnalyzer.Format(g, Analysis.Of(g)), BatchAnalyzer.Format(result.Grammar, result.Analysis));
+            }
+
+        } finally {
+            DeleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void testFailedAnalysis() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("grammars");
+
+        try {
+            Write(directory.resolve("deep.cfg"), "D -> d");
+            Write(directory.resolve("flat.cfg"), "S -> s");
+            Write(directory.resolve("broken.cfg"), "E -> e");
+
+            BatchAnalyzer analyzer = new BatchAnalyzer(2, grammar -> {
+                if (grammar.StartSymbol.text.equals("D")) throw new StackOverflowError();
+                if (grammar.StartSymbol.text.equals("S")) return Analysis.Of(grammar);
+                throw new Error("broken");
+            });
+
+            List<BatchAnalyzer.Result> results = new ArrayList<>();
+            BatchAnalyzer.Summary summary = analyzer.analyze(BatchAnalyzer.GrammarFiles(directory), results::add);
+
+            //Errors of one file do not stop the batch
+            assertEquals(1, summary.Grammars);
+            assertEquals(2, summary.Failures);
+
+            for (BatchAnalyzer.Result result : results) {
+                if (result.File.endsWith("deep.cfg")) {
+                    assertTrue(result.Error instanceof StackOverflowError);
+                } else if (result.File.endsWith("broken.cfg")) {
+                    assertEquals("broken", result.Error.getMessage());
+                } else {
+                    assertNull(result.Error);
+                }
+            }
+
+        } finally {
+            DeleteDirectory(directory);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import static generator.GrammarParser.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitSetGeneratorTest {
+
+    /**
+     * Compare the bitset generation with the set generator
+     * @param lines Lines of the grammar to compare
+     */
+    void assertSameSets(String... lines) {
+        Grammar g = ParseGrammar(lines);
+        assertEquals(SetGenerator.First(g), BitSetGenerator.First(g));
+        assertEquals(SetGenerator.Follow(g), BitSetGenerator.Follow(g));
+        assertEquals(SetGenerator.Predict(g), BitSetGenerator.Predict(g));
+    }
+
+    @Test
+    void testSymbolIndex() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A b",
+                "A -> a | ε"
+        });
+        SymbolIndex index = new SymbolIndex(g);
+
+        assertEquals(4, index.terminalCount());
+        assertEquals(2, index.nonterminalCount());
+        assertEquals(3, index.productionCount());
+        assertEquals("ε", index.terminal(SymbolIndex.εId).toString());
+        assertEquals("$", index.terminal(SymbolIndex.EndmarkerId).toString());
+        assertEquals(0, index.startSymbol());
+        assertArrayEquals(new int[]{ 1, ~index.terminalId(new Terminal("b")) }, index.rightSide(0));
+        assertArrayEquals(new int[]{}, index.rightSide(2));
+    }
+
+    @Test
+    void testSetFormat() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A B C",
+                "A -> C | a",
+                "B -> b | ε",
+                "C -> c"
+        });
+        assertEquals("{a, c}", BitSetGenerator.First(g).get(new Nonterminal("A")).toString());
+        assertEquals("{ε, b}", BitSetGenerator.First(g).get(new Nonterminal("B")).toString());
+        assertEquals("{$, b, c}", BitSetGenerator.Follow(g).get(new Nonterminal("C")).toString());
+    }
+
+    @Test
+    void testStartupGrammar() {
+        assertSameSets("S -> ABC", "A -> C | a", "B -> b | ε", "C -> c");
+    }
+
+    @Test
+    void testMiddleNotEmptyGrammar() {
+        assertSameSets("S -> ABCDE", "A -> a | ε", "B -> b | ε", "C -> c", "D -> d | ε", "E -> e | ε");
+    }
+
+    @Test
+    void testTransitiveEmptyWord() {
+        assertSameSets("S -> A C", "A -> B", "B -> b", "B -> ε", "C -> ε");
+    }
+
+    @Test
+    void testCombinedGrammars() {
+        assertSameSets("F -> ( E ) | id", "E -> T | G", "G -> + T G | ε", "T -> F L", "L -> * F L | ε");
+        assertSameSets("S -> E", "E -> E + T | E - T | T", "T -> T * F | T / F | F", "F -> ( E ) | id | num");
+    }
+
+    @Test
+    void testLargeTerminalIds() {
+        StringBuilder sb = new StringBuilder("S -> A");
+
+        for (int i = 0; i < 150; i++) {
+            sb.append(" | t").append(i);
+        }
+
+        assertSameSets(sb.toString(), "A -> S x | ε");
+    }
+}
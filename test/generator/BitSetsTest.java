@@ -0,0 +1,83 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import static generator.BitSets.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitSetsTest {
+
+    @Test
+    void testAdd() {
+        long[] s = Create(130);
+        assertEquals(3, s.length);
+        assertTrue(IsEmpty(s));
+
+        assertTrue(Add(s, 129));
+        assertFalse(Add(s, 129));
+        assertTrue(Contains(s, 129));
+        assertFalse(Contains(s, 65));
+        assertFalse(IsEmpty(s));
+
+        Remove(s, 129);
+        assertFalse(Contains(s, 129));
+        assertTrue(IsEmpty(s));
+    }
+
+    @Test
+    void testUnion() {
+        long[] a = Create(100);
+        long[] b = Create(100);
+        Add(a, 1);
+        Add(b, 1);
+        Add(b, 70);
+
+        assertTrue(Union(a, b));
+        assertFalse(Union(a, b));
+        assertTrue(Contains(a, 1));
+        assertTrue(Contains(a, 70));
+    }
+
+    @Test
+    void testUnionWithout() {
+        long[] a = Create(100);
+        long[] b = Create(100);
+        Add(b, 0);
+        Add(b, 99);
+
+        assertTrue(UnionWithout(a, b, 0));
+        assertFalse(Contains(a, 0));
+        assertTrue(Contains(a, 99));
+        assertFalse(UnionWithout(a, b, 0));
+    }
+
+    @Test
+    void testDifference() {
+        long[] a = Create(100);
+        long[] b = Create(100);
+        Add(a, 3);
+        Add(a, 64);
+        Add(b, 64);
+
+        Difference(a, b);
+        assertTrue(Contains(a, 3));
+        assertFalse(Contains(a, 64));
+    }
+
+    @Test
+    void testNextId() {
+        long[] s = Create(200);
+        Add(s, 5);
+        Add(s, 64);
+        Add(s, 199);
+
+        assertEquals(5, NextId(s, 0));
+        assertEquals(64, NextId(s, 6));
+        assertEquals(199, NextId(s, 65));
+        assertEquals(-1, NextId(s, 200));
+    }
+}
@@ -0,0 +1,123 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static generator.GrammarParser.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTableTest {
+
+    private final Grammar expressions = ParseGrammar(new String[]{
+            "E -> E + T | T",
+            "T -> T * F | F",
+            "F -> ( E ) | id"
+    });
+
+    @Test
+    void testRandomTables() {
+        Random random = new Random(13);
+
+        for (int i = 0; i < 200; i++) {
+            int[][] table = new int[1 + random.nextInt(40)][1 + random.nextInt(40)];
+
+            for (int[] row : table) {
+                for (int column = 0; column < row.length; column++) {
+                    row[column] = (random.nextInt(4) == 0) ? random.nextInt(5) : -1;
+                }
+            }
+
+            int[] defaults = new int[table.length];
+            Arrays.fill(defaults, -1);
+            CompressedTable compressed = new CompressedTable(table, -1, defaults);
+
+            for (int row = 0; row < table.length; row++) {
+                for (int column = 0; column < table[row].length; column++) {
+                    assertEquals(table[row][column], compressed.get(row, column));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDefaultEntries() {
+        int[][] table = new int[][]{
+                { 3, 3, -1, 4 },
+                { -1, -1, -1, -1 },
+                { 5, -1, 5, 5 }
+        };
+        int[] defaults = new int[table.length];
+
+        for (int row = 0; row < table.length; row++) {
+            defaults[row] = CompressedTable.MostFrequent(table[row], -1);
+        }
+
+        CompressedTable compressed = new CompressedTable(table, -1, defaults);
+        assertEquals(3, compressed.get(0, 2));
+        assertEquals(4, compressed.get(0, 3));
+        assertEquals(-1, compressed.get(1, 0));
+        assertEquals(5, compressed.get(2, 1));
+
+        //Only the entry 4 is not covered by a default
+        assertEquals(1, compressed.slotCount());
+    }
+
+    @Test
+    void testLL1Table() {
+        LL1Table table = new LL1Table(ParseGrammar(new String[]{
+                "E -> T E'",
+                "E' -> + T E' | ε",
+                "T -> F T'",
+                "T' -> * F T' | ε",
+                "F -> ( E ) | id"
+        }));
+        CompressedTable compressed = CompressedTable.Of(table, false);
+        CompressedTable defaults = CompressedTable.Of(table, true);
+
+        for (int n = 0; n < table.Index.nonterminalCount(); n++) {
+            for (int t = 0; t < table.Index.terminalCount(); t++) {
+                assertEquals(table.production(n, t), compressed.get(n, t));
+
+                if (table.production(n, t) != LL1Table.ERROR) {
+                    assertEquals(table.production(n, t), defaults.get(n, t));
+                }
+            }
+        }
+
+        assertTrue(defaults.slotCount() < compressed.slotCount());
+    }
+
+    @Test
+    void testLRTable() {
+        LRTable table = LRTable.LALR(expressions);
+        CompressedTable actions = CompressedTable.Of(table, true);
+        CompressedTable gotos = CompressedTable.Gotos(table);
+        int terminalCount = table.Automaton.Index.terminalCount();
+        int nonterminalCount = table.Automaton.Index.nonterminalCount();
+
+        for (int state = 0; state < table.stateCount(); state++) {
+            for (int t = 0; t < terminalCount; t++) {
+                int action = table.action(state, t);
+
+                if (action != LRTable.ERROR) {
+                    assertEquals(action, actions.get(state, t));
+                } else {
+                    assertFalse(LRTable.IsShift(actions.get(state, t)));
+                }
+            }
+
+            for (int n = 0; n < nonterminalCount; n++) {
+                assertEquals(table.goTo(state, n), gotos.get(state, n));
+            }
+        }
+
+        assertTrue(actions.size() < table.stateCount() * terminalCount);
+    }
+}
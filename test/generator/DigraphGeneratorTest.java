@@ -0,0 +1,102 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import static generator.GrammarParser.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigraphGeneratorTest {
+
+    /**
+     * Compare the digraph generation with the bitset generation
+     * @param lines Lines of the grammar to compare
+     */
+    void assertSameSets(String... lines) {
+        Grammar g = ParseGrammar(lines);
+        assertEquals(BitSetGenerator.First(g), DigraphGenerator.First(g));
+        assertEquals(BitSetGenerator.Follow(g), DigraphGenerator.Follow(g));
+        assertEquals(BitSetGenerator.Predict(g), DigraphGenerator.Predict(g));
+    }
+
+    @Test
+    void testComponents() {
+        //0 -> 1 -> 2 -> 1, 2 -> 3
+        int[][] relation = new int[][]{ {1}, {2}, {1, 3}, {} };
+        int[] components = Digraph.Components(relation);
+
+        assertEquals(3, Digraph.ComponentCount(components));
+        assertEquals(components[1], components[2]);
+        assertTrue(components[3] < components[1]);
+        assertTrue(components[1] < components[0]);
+        assertArrayEquals(new int[]{ 1, 2 }, Digraph.Members(components)[components[1]]);
+    }
+
+    @Test
+    void testTraverse() {
+        int[][] relation = new int[][]{ {1}, {2}, {1, 3}, {} };
+        long[][] sets = new long[4][];
+
+        for (int x = 0; x < sets.length; x++) {
+            sets[x] = BitSets.Create(4);
+            BitSets.Add(sets[x], x);
+        }
+
+        Digraph.Traverse(relation, sets);
+        assertEquals(15, sets[0][0]);
+        assertEquals(14, sets[1][0]);
+        assertEquals(14, sets[2][0]);
+        assertEquals(8, sets[3][0]);
+    }
+
+    @Test
+    void testStartupGrammar() {
+        assertSameSets("S -> ABC", "A -> C | a", "B -> b | ε", "C -> c");
+    }
+
+    @Test
+    void testMiddleNotEmptyGrammar() {
+        assertSameSets("S -> ABCDE", "A -> a | ε", "B -> b | ε", "C -> c", "D -> d | ε", "E -> e | ε");
+    }
+
+    @Test
+    void testCombinedGrammars() {
+        assertSameSets("F -> ( E ) | id", "E -> T | G", "G -> + T G | ε", "T -> F L", "L -> * F L | ε");
+        assertSameSets("S -> E", "E -> E + T | E - T | T", "T -> T * F | T / F | F", "F -> ( E ) | id | num");
+    }
+
+    @Test
+    void testRecursiveGrammar() {
+        assertSameSets("S -> A S B | ε", "A -> a | S", "B -> b B | S");
+    }
+
+    @Test
+    void testDeepChain() {
+        //The relations are deeper than the call stack would allow
+        Terminal t = new Terminal("t");
+        Terminal end = new Terminal("end");
+        Nonterminal[] n = new Nonterminal[100001];
+        ProductionSet productions = new ProductionSet();
+
+        for (int i = 0; i < n.length; i++) {
+            n[i] = new Nonterminal("N" + i);
+        }
+
+        for (int i = 0; i < n.length - 1; i++) {
+            productions.add(new Production(n[i], new Word(n[i + 1], t)));
+            productions.add(new Production(n[i], new Word(Singletons.ε)));
+        }
+
+        productions.add(new Production(n[n.length - 1], new Word(end)));
+        Grammar g = new Grammar(new SymbolSet(n), new SymbolSet(t, Singletons.ε, end), productions, n[0]);
+        SymbolIndex index = new SymbolIndex(g);
+        long[][] firstSets = DigraphGenerator.First(index);
+        long[][] followSets = DigraphGenerator.Follow(index, firstSets);
+
+        assertEquals("{ε, t, end}", index.toSymbolSet(firstSets[0]).toString());
+        assertEquals("{t}", index.toSymbolSet(followSets[100000]).toString());
+    }
+}
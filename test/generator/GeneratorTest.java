@@ -133,4 +133,36 @@ class GeneratorTest {
         assertEquals("{S={$}, T={$, +, -, *, /, )}, E={$, +, -, )}, F={$, +, -, *, /, )}}", Follow(g).toString());
         assertEquals("{F -> num={num}, S -> E={(, id, num}, T -> F={(, id, num}, F -> id={id}, E -> E - T={(, id, num}, T -> T / F={(, id, num}, F -> ( E )={(}, E -> E + T={(, id, num}, T -> T * F={(, id, num}, E -> T={(, id, num}}", Predict(g).toString());
     }
+
+    @Test
+    void testRepeatedNullableSymbol() {
+        String[] lines = new String[]{
+                "S -> A b A",
+                "A -> a | ε"
+        };
+        Grammar g = ParseGrammar(lines);
+        assertEquals("({S, A}, {b, a, ε}, {S -> A b A, A -> a, A -> ε}, S)", g.toString());
+        assertEquals("{A={a, ε}, S={a, b}}", First(g).toString());
+        assertEquals("{A={b, $}, S={$}}", Follow(g).toString());
+        assertEquals("{A -> a={a}, S -> A b A={a, b}, A -> ε={b, $}}", Predict(g).toString());
+    }
+
+    @Test
+    void testNullableSuffix() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A B | x B y",
+                "A -> a",
+                "B -> b | ε"
+        });
+        //FOLLOW(B) must not be part of FOLLOW(A)
+        assertEquals("{b, $}", Follow(g).get(new Nonterminal("A")).toString());
+
+        SuffixTable suffixes = new SuffixTable(g, First(g));
+        Production rule = new Production(new Nonterminal("S"), new Word(new Terminal("x"), new Nonterminal("B"), new Terminal("y")));
+        assertEquals("{x}", suffixes.first(rule, 0).toString());
+        assertEquals("{b, y}", suffixes.first(rule, 1).toString());
+        assertEquals("{}", suffixes.first(rule, 3).toString());
+        assertFalse(suffixes.isNullable(rule, 1));
+        assertTrue(suffixes.isNullable(rule, 3));
+    }
 }
@@ -0,0 +1,80 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static generator.GrammarParser.ParseGrammar;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrammarFormatTest {
+
+    private static byte[] Encode(Grammar g) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GrammarFormat.Write(g, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A B | ε",
+                "A -> a A | $ | ε",
+                "B -> b | S c",
+                "C -> äö"
+        });
+
+        Grammar loaded = GrammarFormat.Read(ByteBuffer.wrap(Encode(g)));
+        assertEquals(g.toString(), loaded.toString());
+        assertEquals(g.Symbols.size(), loaded.Symbols.size());
+
+        for (int ordinal = 0; ordinal < g.Symbols.size(); ordinal++) {
+            assertEquals(g.Symbols.symbol(ordinal), loaded.Symbols.symbol(ordinal));
+        }
+
+        for (Production p : loaded.Productions) {
+            assertTrue(loaded.Symbols.contains(p.LeftSide));
+            p.RightSide.forEach(sy -> assertTrue(loaded.Symbols.contains(sy)));
+        }
+
+        assertEquals(SetGenerator.Predict(g), SetGenerator.Predict(loaded));
+    }
+
+    @Test
+    void testFile() throws IOException {
+        Grammar g = ParseGrammar(new String[]{ "E -> T + E | T", "T -> id | ( E )" });
+        Path file = Files.createTempFile("grammar", ".bin");
+
+        try {
+            GrammarFormat.Write(g, file);
+            assertEquals(g.toString(), GrammarFormat.Read(file).toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testInvalidData() throws IOException {
+        byte[] data = Encode(ParseGrammar(new String[]{ "S -> a S | b" }));
+
+        byte[] magic = data.clone();
+        magic[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> GrammarFormat.Read(ByteBuffer.wrap(magic)));
+
+        byte[] version = data.clone();
+        version[7] = 99;
+        assertThrows(IllegalArgumentException.class, () -> GrammarFormat.Read(ByteBuffer.wrap(version)));
+
+        byte[] truncated = Arrays.copyOf(data, data.length - 3);
+        assertThrows(IllegalArgumentException.class, () -> GrammarFormat.Read(ByteBuffer.wrap(truncated)));
+    }
+}
@@ -0,0 +1,134 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import static generator.GrammarParser.*;
+import static generator.Singletons.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalAnalysisTest {
+
+    /**
+     * Compare the incremental sets with a full generation
+     * @param analysis The edited analysis
+     */
+    void assertSameSets(IncrementalAnalysis analysis) {
+        Grammar g = analysis.grammar();
+        assertEquals(BitSetGenerator.First(g), analysis.first());
+        assertEquals(BitSetGenerator.Follow(g), analysis.follow());
+        assertEquals(BitSetGenerator.Predict(g), analysis.predict());
+    }
+
+    @Test
+    void testInitialSets() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> ABC",
+                "A -> C | a",
+                "B -> b | ε",
+                "C -> c"
+        });
+        IncrementalAnalysis analysis = new IncrementalAnalysis(g);
+
+        assertEquals(g.toString(), analysis.grammar().toString());
+        assertSameSets(analysis);
+    }
+
+    @Test
+    void testAddProduction() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A B",
+                "A -> a",
+                "B -> b"
+        });
+        IncrementalAnalysis analysis = new IncrementalAnalysis(g);
+        Nonterminal A = new Nonterminal("A");
+
+        assertTrue(analysis.addProduction(new Production(A, new Word(ε))));
+        assertFalse(analysis.addProduction(new Production(A, new Word(ε))));
+        assertEquals("{ε, a}", analysis.first(A).toString());
+        assertEquals("{a, b}", analysis.first(new Nonterminal("S")).toString());
+        assertSameSets(analysis);
+
+        //New symbols are added to the grammar
+        Nonterminal C = new Nonterminal("C");
+        analysis.addProduction(new Production(new Nonterminal("B"), new Word(C, new Terminal("x"))));
+        analysis.addProduction(new Production(C, new Word(new Terminal("c"))));
+        assertEquals("{b, c}", analysis.first(new Nonterminal("B")).toString());
+        assertSameSets(analysis);
+    }
+
+    @Test
+    void testRemoveProduction() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A B c",
+                "A -> a | ε",
+                "B -> A | b"
+        });
+        IncrementalAnalysis analysis = new IncrementalAnalysis(g);
+        Nonterminal A = new Nonterminal("A");
+        Nonterminal B = new Nonterminal("B");
+
+        assertEquals("{c, a, b}", analysis.follow(A).toString());
+        assertTrue(analysis.removeProduction(new Production(A, new Word(ε))));
+        assertFalse(analysis.removeProduction(new Production(A, new Word(ε))));
+        assertEquals("{a}", analysis.first(A).toString());
+        assertEquals("{a, b}", analysis.first(B).toString());
+        assertSameSets(analysis);
+
+        analysis.removeProduction(new Production(B, new Word(A)));
+        assertEquals("{b}", analysis.follow(A).toString());
+        assertSameSets(analysis);
+    }
+
+    @Test
+    void testRecursiveEdits() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A S B | ε",
+                "A -> a | S",
+                "B -> b B | S"
+        });
+        IncrementalAnalysis analysis = new IncrementalAnalysis(g);
+        Nonterminal S = new Nonterminal("S");
+
+        analysis.removeProduction(new Production(S, new Word(ε)));
+        assertSameSets(analysis);
+
+        analysis.addProduction(new Production(S, new Word(new Terminal("s"))));
+        assertSameSets(analysis);
+
+        analysis.addProduction(new Production(S, new Word(ε)));
+        assertSameSets(analysis);
+    }
+
+    @Test
+    void testReusedIds() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A b",
+                "A -> a | ε"
+        });
+        IncrementalAnalysis analysis = new IncrementalAnalysis(g);
+        Nonterminal A = new Nonterminal("A");
+        int slots = analysis.productionSlots();
+
+        //Repeated edits reuse the ids of the removed productions
+        for (int i = 0; i < 100; i++) {
+            Production p = new Production(A, new Word(new Terminal("t" + (i % 3)), A));
+            assertTrue(analysis.addProduction(p));
+            assertTrue(analysis.removeProduction(p));
+        }
+
+        //Only the first edit needs a new id
+        assertEquals(slots + 1, analysis.productionSlots());
+        assertSameSets(analysis);
+
+        analysis.removeProduction(new Production(A, new Word(ε)));
+        analysis.addProduction(new Production(A, new Word(new Terminal("c"), A)));
+        analysis.addProduction(new Production(A, new Word(ε)));
+        assertEquals(slots + 1, analysis.productionSlots());
+        assertSameSets(analysis);
+    }
+}
@@ -0,0 +1,109 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.IntSupplier;
+
+import static generator.GrammarParser.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LL1ParserTest {
+
+    private final LL1Parser parser = new LL1Parser(ParseGrammar(new String[]{
+            "E -> T E'",
+            "E' -> + T E' | ε",
+            "T -> F T'",
+            "T' -> * F T' | ε",
+            "F -> ( E ) | id"
+    }));
+
+    /**
+     * Create a token stream for the terminals of a word
+     * @param word Terminals separated by spaces
+     * @return Supplier of the terminal ids followed by the end-marker
+     */
+    IntSupplier tokens(String word) {
+        String[] terminals = word.split(" ");
+        int[] position = new int[1];
+
+        return () -> {
+            int i = position[0]++;
+            if (i >= terminals.length) return SymbolIndex.EndmarkerId;
+            return parser.Table.Index.terminalId(new Terminal(terminals[i]));
+        };
+    }
+
+    @Test
+    void testAccept() {
+        assertTrue(parser.parse(tokens("id")));
+        assertTrue(parser.parse(tokens("id + id * id")));
+        assertTrue(parser.parse(tokens("( id + id ) * ( ( id ) )")));
+    }
+
+    @Test
+    void testReject() {
+        assertFalse(parser.parse(tokens("id +")));
+        assertFalse(parser.parse(tokens("id id")));
+        assertFalse(parser.parse(tokens("( id")));
+        assertFalse(parser.parse(tokens("id )")));
+    }
+
+    @Test
+    void testEvents() {
+        SymbolIndex index = parser.Table.Index;
+        StringBuilder sb = new StringBuilder();
+
+        boolean accepted = parser.parse(tokens("( id ) * id"), new LL1Parser.Listener() {
+            @Override
+            public void enter(int production) {
+                sb.append("[").append(index.production(production).LeftSide);
+            }
+
+            @Override
+            public void exit(int production) {
+                sb.append("]");
+            }
+
+            @Override
+            public void match(int terminal, long position) {
+                sb.append(" ").append(index.terminal(terminal)).append(" ");
+            }
+        });
+
+        assertTrue(accepted);
+        assertEquals("[E[T[F ( [E[T[F id ][T']][E']] ) ][T' * [F id ][T']]][E']]", sb.toString());
+    }
+
+    @Test
+    void testSyntaxError() {
+        long[] error = new long[]{ -1, -1 };
+
+        assertFalse(parser.parse(tokens("id + * id"), new LL1Parser.Listener() {
+            @Override
+            public void syntaxError(int terminal, long position) {
+                error[0] = terminal;
+                error[1] = position;
+            }
+        }));
+
+        assertEquals(parser.Table.Index.terminalId(new Terminal("*")), error[0]);
+        assertEquals(2, error[1]);
+    }
+
+    @Test
+    void testDeepNesting() {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 10000; i++) sb.append("( ");
+        sb.append("id");
+        for (int i = 0; i < 10000; i++) sb.append(" )");
+
+        assertTrue(parser.parse(tokens(sb.toString())));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse(() -> 0));
+    }
+}
@@ -0,0 +1,57 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import static generator.GrammarParser.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LL1TableTest {
+
+    @Test
+    void testExpressionTable() {
+        Grammar g = ParseGrammar(new String[]{
+                "E -> T E'",
+                "E' -> + T E' | ε",
+                "T -> F T'",
+                "T' -> * F T' | ε",
+                "F -> ( E ) | id"
+        });
+        LL1Table table = new LL1Table(g);
+        SymbolIndex index = table.Index;
+        assertTrue(table.isLL1());
+
+        int e = index.nonterminalId(new Nonterminal("E"));
+        int e2 = index.nonterminalId(new Nonterminal("E'"));
+        int id = index.terminalId(new Terminal("id"));
+        int plus = index.terminalId(new Terminal("+"));
+        int close = index.terminalId(new Terminal(")"));
+
+        assertEquals("E -> T E'", index.production(table.production(e, id)).toString());
+        assertEquals("E' -> + T E'", index.production(table.production(e2, plus)).toString());
+        assertEquals("E' -> ε", index.production(table.production(e2, close)).toString());
+        assertEquals("E' -> ε", index.production(table.production(e2, SymbolIndex.EndmarkerId)).toString());
+        assertEquals(LL1Table.ERROR, table.production(e, plus));
+        assertEquals(LL1Table.ERROR, table.row(e)[SymbolIndex.εId]);
+    }
+
+    @Test
+    void testConflicts() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> a b | a c | a | B",
+                "B -> b"
+        });
+        LL1Table table = new LL1Table(g);
+        assertFalse(table.isLL1());
+        assertEquals(1, table.conflicts().size());
+
+        LL1Table.Conflict conflict = table.conflicts().get(0);
+        assertEquals("S", conflict.nonterminal().toString());
+        assertEquals("a", conflict.terminal().toString());
+        assertEquals("[S -> a b, S -> a c, S -> a]", conflict.productions().toString());
+        assertEquals("S -> a b", table.Index.production(table.production(0, table.Index.terminalId(new Terminal("a")))).toString());
+    }
+}
@@ -0,0 +1,161 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static generator.GrammarParser.*;
+import static generator.LRTable.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LRTableTest {
+
+    /**
+     * Run a LR parser with the table for a word
+     * @param table The action and goto table
+     * @param word Terminals separated by spaces
+     * @return True when the word is accepted
+     */
+    boolean accepts(LRTable table, String word) {
+        SymbolIndex index = table.Automaton.Index;
+        String[] terminals = word.isEmpty() ? new String[0] : word.split(" ");
+        int[] stack = new int[256];
+        int top = 0;
+        int position = 0;
+
+        while (true) {
+            int terminal = (position < terminals.length)
+                    ? index.terminalId(new Terminal(terminals[position]))
+                    : SymbolIndex.EndmarkerId;
+            int action = table.action(stack[top], terminal);
+
+            if (action == ACCEPT) {
+                return true;
+
+            } else if (IsShift(action)) {
+                stack[++top] = ShiftState(action);
+                position++;
+
+            } else if (IsReduce(action)) {
+                int p = ReduceProduction(action);
+                top -= index.rightSide(p).length;
+                int target = table.goTo(stack[top], index.leftSide(p));
+                stack[++top] = target;
+
+            } else {
+                return false;
+            }
+        }
+    }
+
+    @Test
+    void testExpressionAutomaton() {
+        Grammar g = ParseGrammar(new String[]{
+                "E -> E + T | T",
+                "T -> T * F | F",
+                "F -> ( E ) | id"
+        });
+        LR0Automaton automaton = new LR0Automaton(g);
+        assertEquals(12, automaton.stateCount());
+
+        LRTable slr = SLR(automaton);
+        LRTable lalr = LALR(automaton);
+        assertTrue(slr.isDeterministic());
+        assertTrue(lalr.isDeterministic());
+
+        for (LRTable table : Arrays.asList(slr, lalr)) {
+            assertTrue(accepts(table, "id"));
+            assertTrue(accepts(table, "id + id * ( id + id )"));
+            assertFalse(accepts(table, "id +"));
+            assertFalse(accepts(table, "( id"));
+            assertFalse(accepts(table, ""));
+        }
+    }
+
+    @Test
+    void testLALRNotSLR() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> L = R | R",
+                "L -> * R | id",
+                "R -> L"
+        });
+        LRTable slr = SLR(g);
+        LRTable lalr = LALR(g);
+
+        assertFalse(slr.isDeterministic());
+        assertEquals(1, slr.conflicts().size());
+        assertTrue(slr.conflicts().get(0).isShiftReduce());
+        assertEquals("=", slr.conflicts().get(0).terminal().toString());
+
+        assertTrue(lalr.isDeterministic());
+        assertTrue(accepts(lalr, "* id = id"));
+        assertTrue(accepts(lalr, "* * id"));
+        assertFalse(accepts(lalr, "id = = id"));
+    }
+
+    @Test
+    void testNullableSymbols() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A B c | d",
+                "A -> a | ε",
+                "B -> b | ε"
+        });
+        LRTable lalr = LALR(g);
+        assertTrue(lalr.isDeterministic());
+        assertTrue(accepts(lalr, "c"));
+        assertTrue(accepts(lalr, "d"));
+        assertTrue(accepts(lalr, "a b c"));
+        assertTrue(accepts(lalr, "b c"));
+        assertTrue(accepts(lalr, "a c"));
+        assertFalse(accepts(lalr, "a d"));
+        assertFalse(accepts(lalr, "a a c"));
+    }
+
+    @Test
+    void testReduceReduceConflict() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A | B",
+                "A -> x",
+                "B -> x"
+        });
+        LRTable lalr = LALR(g);
+        assertEquals(1, lalr.conflicts().size());
+        assertFalse(lalr.conflicts().get(0).isShiftReduce());
+        assertTrue(accepts(lalr, "x"));
+    }
+
+    @Test
+    void testManyStates() {
+        //Every nonterminal N_i -> t_i N_i+1 | u_i creates new states
+        Nonterminal[] n = new Nonterminal[2000];
+        SymbolSet terminals = new SymbolSet();
+        ProductionSet productions = new ProductionSet();
+
+        for (int i = 0; i < n.length; i++) {
+            n[i] = new Nonterminal("N" + i);
+        }
+
+        for (int i = 0; i < n.length; i++) {
+            Terminal t = new Terminal("t" + i);
+            Terminal u = new Terminal("u" + i);
+            terminals.add(t);
+            terminals.add(u);
+            productions.add(new Production(n[i], (i + 1 < n.length) ? new Word(t, n[i + 1]) : new Word(t)));
+            productions.add(new Production(n[i], new Word(u)));
+        }
+
+        Grammar g = new Grammar(new SymbolSet(n), terminals, productions, n[0]);
+        LR0Automaton automaton = new LR0Automaton(g);
+        assertEquals(3 * n.length + 1, automaton.stateCount());
+
+        LRTable lalr = LALR(automaton);
+        assertTrue(lalr.isDeterministic());
+        assertTrue(accepts(lalr, "t0 t1 t2 u3"));
+        assertFalse(accepts(lalr, "t0 t2"));
+    }
+}
@@ -0,0 +1,150 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static generator.GrammarParser.*;
+import static generator.LookaheadSet.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LookaheadGeneratorTest {
+
+    /**
+     * Compare the lookahead generation for k = 1 with the bitset generation
+     * @param lines Lines of the grammar to compare
+     */
+    void assertSameAsBitSets(String... lines) {
+        SymbolIndex index = new SymbolIndex(ParseGrammar(lines));
+        long[][] firstSets = BitSetGenerator.First(index);
+        long[][] followSets = BitSetGenerator.Follow(index, firstSets);
+        long[][] predictSets = BitSetGenerator.Predict(index, firstSets, followSets);
+
+        LookaheadSet[] firstK = LookaheadGenerator.First(index, 1);
+        LookaheadSet[] followK = LookaheadGenerator.Follow(index, firstK, 1);
+        LookaheadSet[] predictK = LookaheadGenerator.Predict(index, firstK, followK, 1);
+
+        for (int n = 0; n < index.nonterminalCount(); n++) {
+            assertEquals(toLookaheadSet(firstSets[n]), firstK[n]);
+            assertEquals(toLookaheadSet(followSets[n]), followK[n]);
+        }
+
+        for (int p = 0; p < index.productionCount(); p++) {
+            assertEquals(toLookaheadSet(predictSets[p]), predictK[p]);
+        }
+    }
+
+    LookaheadSet toLookaheadSet(long[] bitSet) {
+        LookaheadSet set = new LookaheadSet();
+
+        for (int id = BitSets.NextId(bitSet, 0); id >= 0; id = BitSets.NextId(bitSet, id + 1)) {
+            set.add(id == SymbolIndex.εId ? 0 : Of(id));
+        }
+
+        return set;
+    }
+
+    @Test
+    void testPackedStrings() {
+        long ab = Concat(Of(1), Of(2), 4);
+        assertEquals(2, Length(ab));
+        assertEquals(1, Get(ab, 0));
+        assertEquals(2, Get(ab, 1));
+        assertEquals(Of(1), Truncate(ab, 1));
+        assertEquals(Of(1), Concat(Of(1), Of(2), 1));
+        assertEquals(ab, Concat(ab, 0, 4));
+        assertEquals(0, Length(0));
+        assertEquals(4, Length(Concat(ab, ab, 4)));
+        assertEquals(0xFFFF, Get(Of(0xFFFF), 0));
+        assertThrows(IllegalArgumentException.class, () -> Of(0));
+    }
+
+    @Test
+    void testLookaheadSet() {
+        LookaheadSet set = new LookaheadSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+
+        for (int id = 1; id <= 100; id++) {
+            assertTrue(set.add(Of(id)));
+        }
+
+        assertEquals(101, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(Of(100)));
+        assertFalse(set.contains(Of(101)));
+        assertFalse(set.addAll(new LookaheadSet(Of(5), 0)));
+        assertEquals(new LookaheadSet(Of(2), Of(1)), new LookaheadSet(Of(1), Of(2)));
+    }
+
+    @Test
+    void testConcatSets() {
+        LookaheadSet a = new LookaheadSet(0, Of(1), Concat(Of(1), Of(1), 2));
+        LookaheadSet b = new LookaheadSet(Of(2), Of(3));
+        LookaheadSet c = LookaheadSet.Concat(a, b, 2);
+
+        assertEquals(new LookaheadSet(Of(2), Of(3), Concat(Of(1), Of(2), 2),
+                Concat(Of(1), Of(3), 2), Concat(Of(1), Of(1), 2)), c);
+        assertTrue(IsComplete(LookaheadSet.Concat(b, b, 2), 2));
+        assertFalse(IsComplete(a, 2));
+        assertEquals(new LookaheadSet(Concat(Of(1), Of(1), 2)), LookaheadSet.Concat(a, new LookaheadSet(), 2));
+    }
+
+    @Test
+    void testFirstTwo() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> a b | a c | A",
+                "A -> d A | ε"
+        });
+        Map<Symbol, Set<Word>> first = LookaheadGenerator.First(g, 2);
+        assertEquals("[ε, a b, a c, d, d d]", first.get(new Nonterminal("S")).toString());
+        assertEquals("[ε, d, d d]", first.get(new Nonterminal("A")).toString());
+    }
+
+    @Test
+    void testFollowTwo() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A b c | A c",
+                "A -> a | ε"
+        });
+        Map<Symbol, Set<Word>> follow = LookaheadGenerator.Follow(g, 2);
+        assertEquals("[$]", follow.get(new Nonterminal("S")).toString());
+        assertEquals("[b c, c $]", follow.get(new Nonterminal("A")).toString());
+    }
+
+    @Test
+    void testPredictTwo() {
+        //Not LL(1), but LL(2)
+        Grammar g = ParseGrammar(new String[]{
+                "S -> a b | a c"
+        });
+        Map<Production, Set<Word>> predict = LookaheadGenerator.Predict(g, 2);
+        assertEquals(2, predict.size());
+
+        for (Map.Entry<Production, Set<Word>> entry : predict.entrySet()) {
+            String expected = entry.getKey().toString().endsWith("b") ? "[a b]" : "[a c]";
+            assertEquals(expected, entry.getValue().toString());
+        }
+    }
+
+    @Test
+    void testSameAsBitSets() {
+        assertSameAsBitSets("S -> ABC", "A -> C | a", "B -> b | ε", "C -> c");
+        assertSameAsBitSets("S -> A b A", "A -> a | ε");
+        assertSameAsBitSets("E -> T E'", "E' -> + T E' | ε", "T -> F T'", "T' -> * F T' | ε", "F -> ( E ) | id");
+    }
+
+    @Test
+    void testLookaheadRange() {
+        Grammar g = ParseGrammar(new String[]{ "S -> a" });
+        assertThrows(IllegalArgumentException.class, () -> LookaheadGenerator.First(g, 0));
+        assertThrows(IllegalArgumentException.class, () -> LookaheadGenerator.First(g, MAX_LENGTH + 1));
+    }
+}
@@ -0,0 +1,155 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static generator.GrammarParser.ParseGrammar;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryAnalysisCacheTest {
+
+    private static Grammar Chain(int length) {
+        String[] lines = new String[length];
+
+        for (int i = 0; i < length; i++) {
+            lines[i] = "N" + i + " -> a" + i + " N" + (i + 1) + " | ε";
+        }
+
+        return ParseGrammar(lines);
+    }
+
+    @Test
+    void testHitsAndMisses() {
+        MemoryAnalysisCache cache = new MemoryAnalysisCache(1 << 20);
+        Grammar g = ParseGrammar(new String[]{ "S -> A b", "A -> a | ε" });
+
+        Analysis analysis = cache.get(g);
+        assertEquals(SetGenerator.Predict(g), analysis.Predict);
+        assertSame(analysis, cache.get(g));
+
+        //An equal grammar with another order is found
+        assertSame(analysis, cache.get(ParseGrammar(new String[]{ "S ->A  b", "A -> ε|a" })));
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.size());
+        assertEquals(MemoryAnalysisCache.EstimateBytes(analysis), cache.estimatedBytes());
+    }
+
+    @Test
+    void testEviction() {
+        Grammar g1 = Chain(10);
+        Grammar g2 = Chain(11);
+        Grammar g3 = Chain(12);
+        long bytes = MemoryAnalysisCache.EstimateBytes(Analysis.Of(g3));
+
+        //Room for two entries in a single stripe
+        MemoryAnalysisCache cache = new MemoryAnalysisCache(2 * bytes + 100, 1, Analysis::Of);
+        cache.get(g1);
+        cache.get(g2);
+        cache.get(g1);
+        cache.get(g3);
+
+        //The least recently used grammar is evicted
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertTrue(cache.estimatedBytes() <= 2 * bytes + 100);
+
+        long misses = cache.missCount();
+        cache.get(g1);
+        assertEquals(misses, cache.missCount());
+        cache.get(g2);
+        assertEquals(misses + 1, cache.missCount());
+
+        //Entries larger than the limit are not cached
+        MemoryAnalysisCache small = new MemoryAnalysisCache(16, 1, Analysis::Of);
+        small.get(g1);
+        small.get(g1);
+        assertEquals(0, small.size());
+        assertEquals(2, small.missCount());
+    }
+
+    @Test
+    void testSharedLimit() {
+        Grammar[] grammars = new Grammar[6];
+
+        for (int i = 0; i < grammars.length; i++) {
+            grammars[i] = Chain(20 + i);
+        }
+
+        long bytes = MemoryAnalysisCache.EstimateBytes(Analysis.Of(grammars[grammars.length - 1]));
+
+        //Entries larger than the share of one stripe are still cached
+        MemoryAnalysisCache cache = new MemoryAnalysisCache(3 * bytes, 16, Analysis::Of);
+        cache.get(grammars[0]);
+        assertEquals(1, cache.size());
+
+        for (Grammar g : grammars) {
+            cache.get(g);
+            cache.get(grammars[0]);
+        }
+
+        //The limit holds for all stripes and the most used grammar stays
+        assertTrue(cache.estimatedBytes() <= 3 * bytes);
+        assertTrue(cache.evictionCount() > 0);
+
+        long misses = cache.missCount();
+        cache.get(grammars[0]);
+        cache.get(grammars[grammars.length - 1]);
+        assertEquals(misses, cache.missCount());
+
+        cache.clear();
+        assertEquals(0, cache.estimatedBytes());
+    }
+
+    @Test
+    void testConcurrentLookups() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        MemoryAnalysisCache cache = new MemoryAnalysisCache(64 << 20, 4, grammar -> {
+            loads.incrementAndGet();
+            return Analysis.Of(grammar);
+        });
+
+        Grammar[] grammars = new Grammar[8];
+
+        for (int i = 0; i < grammars.length; i++) {
+            grammars[i] = Chain(i + 2);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        Grammar g = grammars[i % grammars.length];
+                        assertEquals(g.fingerprint(), cache.get(g).Grammar.fingerprint());
+                    }
+                }));
+            }
+
+            //Rethrow the failures of the threads
+            for (Future<?> result : results) {
+                result.get();
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(8, cache.size());
+        assertEquals(800, cache.hitCount() + cache.missCount());
+        assertEquals(loads.get(), cache.missCount());
+    }
+}
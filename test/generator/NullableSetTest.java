@@ -0,0 +1,59 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import static generator.GrammarParser.*;
+import static generator.Singletons.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullableSetTest {
+
+    @Test
+    void testNullableSymbols() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A B | c",
+                "A -> B | a",
+                "B -> b | ε",
+                "C -> A c"
+        });
+        NullableSet nullable = g.nullable();
+
+        assertEquals("{B, A, S}", nullable.toString());
+        assertTrue(nullable.isNullable(new Nonterminal("S")));
+        assertFalse(nullable.isNullable(new Nonterminal("C")));
+        assertTrue(nullable.isNullable(ε));
+        assertFalse(nullable.isNullable(new Terminal("a")));
+        assertSame(nullable, g.nullable());
+    }
+
+    @Test
+    void testRecursiveSymbols() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> S A | A S",
+                "A -> S | a"
+        });
+        assertEquals("{}", g.nullable().toString());
+    }
+
+    @Test
+    void testNullableSuffix() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A b A B",
+                "A -> a | ε",
+                "B -> A A"
+        });
+        NullableSet nullable = g.nullable();
+        Production p = g.Productions.iterator().next();
+
+        assertFalse(nullable.isNullable(p));
+        assertFalse(nullable.isNullable(p, 1));
+        assertTrue(nullable.isNullable(p, 2));
+        assertTrue(nullable.isNullable(p, 3));
+        assertTrue(nullable.isNullable(p, 4));
+        assertTrue(nullable.isNullable(p.RightSide.subWord(2)));
+    }
+}
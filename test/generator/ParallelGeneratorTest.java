@@ -0,0 +1,91 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ForkJoinPool;
+
+import static generator.GrammarParser.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelGeneratorTest {
+
+    /**
+     * Compare the parallel generation with the bitset generation
+     * @param lines Lines of the grammar to compare
+     */
+    void assertSameSets(String... lines) {
+        Grammar g = ParseGrammar(lines);
+        assertEquals(BitSetGenerator.First(g), ParallelGenerator.First(g));
+        assertEquals(BitSetGenerator.Follow(g), ParallelGenerator.Follow(g));
+        assertEquals(BitSetGenerator.Predict(g), ParallelGenerator.Predict(g));
+    }
+
+    @Test
+    void testStartupGrammar() {
+        assertSameSets("S -> ABC", "A -> C | a", "B -> b | ε", "C -> c");
+    }
+
+    @Test
+    void testCombinedGrammars() {
+        assertSameSets("F -> ( E ) | id", "E -> T | G", "G -> + T G | ε", "T -> F L", "L -> * F L | ε");
+        assertSameSets("S -> E", "E -> E + T | E - T | T", "T -> T * F | T / F | F", "F -> ( E ) | id | num");
+    }
+
+    @Test
+    void testRecursiveGrammar() {
+        assertSameSets("S -> A S B | ε", "A -> a | S", "B -> b B | S");
+    }
+
+    @Test
+    void testIndependentComponents() {
+        //Many small languages that are composed by one start symbol
+        Nonterminal start = new Nonterminal("S");
+        SymbolSet nonterminals = new SymbolSet(start);
+        SymbolSet terminals = new SymbolSet(Singletons.ε);
+        ProductionSet productions = new ProductionSet();
+
+        for (int i = 0; i < 500; i++) {
+            Nonterminal a = new Nonterminal("A" + i);
+            Nonterminal b = new Nonterminal("B" + i);
+            Terminal t = new Terminal("t" + i);
+            nonterminals.add(a);
+            nonterminals.add(b);
+            terminals.add(t);
+
+            productions.add(new Production(start, new Word(a, b)));
+            productions.add(new Production(a, new Word(t, a, b)));
+            productions.add(new Production(a, new Word(Singletons.ε)));
+            productions.add(new Production(b, new Word(a, t)));
+        }
+
+        Grammar g = new Grammar(nonterminals, terminals, productions, start);
+        SymbolIndex index = new SymbolIndex(g);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            long[][] firstSets = ParallelGenerator.First(index, pool);
+            long[][] followSets = ParallelGenerator.Follow(index, firstSets, pool);
+            long[][] predictSets = ParallelGenerator.Predict(index, firstSets, followSets, pool);
+
+            long[][] expectedFirst = BitSetGenerator.First(index);
+            long[][] expectedFollow = BitSetGenerator.Follow(index, expectedFirst);
+            long[][] expectedPredict = BitSetGenerator.Predict(index, expectedFirst, expectedFollow);
+
+            for (int n = 0; n < index.nonterminalCount(); n++) {
+                assertArrayEquals(expectedFirst[n], firstSets[n]);
+                assertArrayEquals(expectedFollow[n], followSets[n]);
+            }
+
+            for (int p = 0; p < index.productionCount(); p++) {
+                assertArrayEquals(expectedPredict[p], predictSets[p]);
+            }
+
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
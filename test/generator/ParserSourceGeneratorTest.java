@@ -0,0 +1,120 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.IntSupplier;
+
+import static generator.GrammarParser.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParserSourceGeneratorTest {
+
+    private final Grammar expressions = ParseGrammar(new String[]{
+            "E -> T E'",
+            "E' -> + T E' | ε",
+            "T -> F T'",
+            "T' -> * F T' | ε",
+            "F -> ( E ) | id"
+    });
+
+    @Test
+    void testSource() {
+        String source = ParserSourceGenerator.Generate(expressions, "parsers", "ExpressionParser");
+
+        assertTrue(source.startsWith("package parsers;"));
+        assertTrue(source.contains("public class ExpressionParser {"));
+        assertTrue(source.contains("public static final int EOF = 1;"));
+        assertTrue(source.contains("public static final int T_ID = "));
+        assertTrue(source.contains("private void parseE_() {"));
+        assertTrue(source.contains("//E' -> + T E'"));
+        assertFalse(source.contains("Conflict"));
+        assertThrows(IllegalArgumentException.class, () -> ParserSourceGenerator.Generate(expressions, "", "class"));
+    }
+
+    @Test
+    void testConflictComment() {
+        Grammar g = ParseGrammar(new String[]{ "S -> a b | a c" });
+        String source = ParserSourceGenerator.Generate(g, "", "ConflictParser");
+        assertTrue(source.contains("//Conflict: S -> a c is not used for T_A"));
+    }
+
+    @Test
+    void testUniqueMethodNames() {
+        //E_ and E' map to parseE_, the first fallback of E' is the name of E__5
+        Grammar g = ParseGrammar(new String[]{
+                "E__5 -> E_ A",
+                "E_ -> B C",
+                "A -> a",
+                "B -> b",
+                "C -> c",
+                "E' -> e"
+        });
+        String source = ParserSourceGenerator.Generate(g, "", "NameParser");
+
+        for (String name : new String[]{ "parseE__5", "parseE_", "parseE__6" }) {
+            String declaration = "private void " + name + "() {";
+            assertEquals(source.indexOf(declaration), source.lastIndexOf(declaration), name);
+            assertTrue(source.contains(declaration), name);
+        }
+    }
+
+    @Test
+    void testGeneratedParser() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        //The compiler is not part of every runtime
+        if (compiler == null) return;
+
+        Path dir = Files.createTempDirectory("generated");
+        Path file = dir.resolve("ExpressionParser.java");
+        Files.write(file, ParserSourceGenerator.Generate(expressions, "", "ExpressionParser").getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, compiler.run(null, null, null, "-encoding", "UTF-8", "-d", dir.toString(), file.toString()));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{ dir.toUri().toURL() })) {
+            Class<?> parserClass = loader.loadClass("ExpressionParser");
+            Constructor<?> constructor = parserClass.getConstructor(IntSupplier.class);
+            SymbolIndex index = new SymbolIndex(expressions);
+
+            assertTrue(parses(constructor, index, "id + id * ( id + id )"));
+            assertTrue(parses(constructor, index, "( ( id ) )"));
+            assertFalse(parses(constructor, index, "id + * id"));
+            assertFalse(parses(constructor, index, "( id"));
+        }
+    }
+
+    boolean parses(Constructor<?> constructor, SymbolIndex index, String word) throws Exception {
+        String[] terminals = word.split(" ");
+        int[] position = new int[1];
+
+        IntSupplier tokens = () -> {
+            int i = position[0]++;
+            if (i >= terminals.length) return SymbolIndex.EndmarkerId;
+            return index.terminalId(new Terminal(terminals[i]));
+        };
+
+        Object parser = constructor.newInstance(tokens);
+
+        try {
+            parser.getClass().getMethod("parse").invoke(parser);
+            return true;
+
+        } catch (InvocationTargetException e) {
+            assertEquals("ExpressionParser$SyntaxError", e.getCause().getClass().getName());
+            return false;
+        }
+    }
+}
@@ -6,6 +6,14 @@
 package generator;
 
 import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
 import static generator.GrammarParser.ParseGrammar;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -243,4 +251,67 @@ class ParserTest {
         Grammar g = ParseGrammar(lines);
         assertEquals("({S, D, A, B, C}, {f, a, b, c}, {S -> A, D -> f, A -> a, A -> b, A -> C, B -> c, C -> S}, S)", g.toString());
     }
+
+    @Test
+    void testUnspacedAlternatives() {
+        String[] lines = new String[]{ "S -> a|b|A", "A -> c" };
+        Grammar g = ParseGrammar(lines);
+        assertEquals("({S, A}, {a, b, c}, {S -> a, S -> b, S -> A, A -> c}, S)", g.toString());
+    }
+
+    @Test
+    void testEmptyRightSide() {
+        String[] lines = new String[]{ "S -> A", "A ->" };
+        Grammar g = ParseGrammar(lines);
+        assertEquals("({S, A}, {}, {S -> A}, S)", g.toString());
+    }
+
+    @Test
+    void testInvalidGrammars() {
+        assertThrows(IllegalArgumentException.class, () -> ParseGrammar(new String[]{ "-> a" }));
+        assertThrows(IllegalArgumentException.class, () -> ParseGrammar(new String[]{ "", "S" }));
+    }
+
+    @Test
+    void testStreamedGrammar() throws IOException {
+        String text = "S -> A B | ε\r\n\nA -> a A | a\nB -> b\n";
+        String expected = "({S, A, B}, {ε, a, b}, {S -> A B, S -> ε, A -> a A, A -> a, B -> b}, S)";
+
+        assertEquals(expected, ParseGrammar(text.split("\n")).toString());
+        assertEquals(expected, ParseGrammar(new StringReader(text)).toString());
+        assertEquals(expected, ParseGrammar(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))).toString());
+
+        Path file = Files.createTempFile("grammar", ".txt");
+
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            assertEquals(expected, ParseGrammar(file).toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testParallelGrammar() throws IOException {
+        StringBuilder text = new StringBuilder("S -> A B | ε\r\n");
+
+        for (int i = 0; i < 200; i++) {
+            text.append("A").append(i % 17).append(" -> a").append(i % 5).append(" A").append(i % 13)
+                .append(" | ε b").append(i % 3).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+
+        text.append("A -> A0 | x\nB -> b");
+        Path file = Files.createTempFile("grammar", ".txt");
+
+        try {
+            Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+            String expected = ParseGrammar(file).toString();
+
+            assertEquals(expected, GrammarParser.ParseGrammarParallel(file).toString());
+            assertEquals(expected, GrammarParser.ParseGrammarParallel(file, ForkJoinPool.commonPool(), 16).toString());
+            assertEquals(expected, GrammarParser.ParseGrammarParallel(file, new ForkJoinPool(3), 100).toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
@@ -0,0 +1,118 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static generator.GrammarParser.*;
+import static generator.PersistentSymbolSet.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSymbolSetTest {
+
+    private final Terminal A = new Terminal("A");
+    private final Terminal B = new Terminal("B");
+    private final Terminal C = new Terminal("C");
+
+    @Test
+    void testUnion() {
+        PersistentSymbolSet ab = Of(A, B);
+        PersistentSymbolSet cb = Of(C, B);
+
+        assertSame(ab, Union(ab, Of(B)));
+        assertSame(ab, Union(ab, EmptySet));
+        assertSame(ab, Union(EmptySet, ab));
+        assertEquals("{A, B, C}", Union(ab, cb).toString());
+        assertEquals("{C, B, A}", Union(cb, ab).toString());
+        assertEquals(new SymbolSet(A, B, C), Union(ab, cb));
+    }
+
+    @Test
+    void testSharing() {
+        PersistentSymbolSet a = Of(A);
+        PersistentSymbolSet ab = a.with(B);
+        PersistentSymbolSet abc = ab.with(C);
+
+        //The old sets are not changed by the appended symbols
+        assertEquals("{A}", a.toString());
+        assertFalse(a.contains(B));
+        assertFalse(ab.contains(C));
+        assertSame(abc, Union(a, abc));
+        assertSame(abc, Union(abc, ab));
+        assertSame(ab, Intersection(ab, abc));
+        assertSame(EmptySet, Difference(ab, abc));
+
+        //A second extension of an old set can not use the shared buffer
+        PersistentSymbolSet ac = a.with(C);
+        assertEquals("{A, C}", ac.toString());
+        assertEquals("{A, B, C}", abc.toString());
+        assertFalse(ab.contains(C));
+    }
+
+    @Test
+    void testDifference() {
+        PersistentSymbolSet ab = Of(A, B);
+
+        assertSame(ab, Difference(ab, Of(C)));
+        assertEquals("{A}", Difference(ab, Of(B)).toString());
+        assertEquals("{}", Difference(ab, Of(B, A)).toString());
+        assertEquals("{A, C}", SymmetricDifference(ab, Of(B, C)).toString());
+        assertEquals("{B}", Intersection(ab, Of(C, B)).toString());
+        assertSame(EmptySet, Intersection(ab, EmptySet));
+    }
+
+    @Test
+    void testImmutable() {
+        PersistentSymbolSet ab = Of(A, B);
+        assertThrows(UnsupportedOperationException.class, () -> ab.add(C));
+        assertThrows(UnsupportedOperationException.class, () -> ab.remove(A));
+        assertThrows(UnsupportedOperationException.class, ab::clear);
+
+        Grammar g = ParseGrammar(new String[]{ "S -> a" });
+        assertTrue(g.Terminals.isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> g.Terminals.add(C));
+        assertThrows(UnsupportedOperationException.class, () -> g.Productions.clear());
+        assertThrows(UnsupportedOperationException.class, () -> Singletons.EmptySet.add(A));
+        assertThrows(UnsupportedOperationException.class, () -> g.Nonterminals.iterator().remove());
+
+        //The constructor freezes copies of the sets of the caller
+        SymbolSet terminals = new SymbolSet(A);
+        ProductionSet productions = new ProductionSet();
+        Grammar h = new Grammar(new SymbolSet(), terminals, productions, null);
+        terminals.add(B);
+        productions.add(new Production(new Nonterminal("S"), new Word(A)));
+        assertEquals(1, h.Terminals.size());
+        assertTrue(h.Productions.isEmpty());
+    }
+
+    @Test
+    void testConcurrentExtension() throws Exception {
+        PersistentSymbolSet base = Of(A);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<PersistentSymbolSet>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 64; i++) {
+            Terminal t = new Terminal("t" + i);
+            futures.add(executor.submit(() -> base.with(t)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            PersistentSymbolSet set = futures.get(i).get();
+            assertEquals(2, set.size());
+            assertTrue(set.contains(A));
+            assertTrue(set.contains(new Terminal("t" + i)));
+        }
+
+        executor.shutdown();
+        assertEquals(1, base.size());
+    }
+}
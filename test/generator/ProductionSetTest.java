@@ -0,0 +1,71 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductionSetTest {
+
+    @Test
+    void testAlternatives() {
+        Nonterminal S = new Nonterminal("S");
+        Nonterminal A = new Nonterminal("A");
+        Terminal a = new Terminal("a");
+        Production p1 = new Production(S, new Word(A, a));
+        Production p2 = new Production(A, new Word(a));
+        Production p3 = new Production(S, new Word(a));
+        ProductionSet set = new ProductionSet(p1, p2, p3);
+
+        assertEquals(Arrays.asList(p1, p3), set.alternatives(S));
+        assertEquals(Collections.singletonList(p2), set.alternatives(A));
+        assertEquals(Collections.emptyList(), set.alternatives(new Nonterminal("B")));
+        assertThrows(UnsupportedOperationException.class, () -> set.alternatives(S).clear());
+    }
+
+    @Test
+    void testOccurrences() {
+        Nonterminal S = new Nonterminal("S");
+        Nonterminal A = new Nonterminal("A");
+        Terminal a = new Terminal("a");
+        Production p1 = new Production(S, new Word(A, a, A));
+        Production p2 = new Production(A, new Word(a));
+        ProductionSet set = new ProductionSet(p1, p2);
+
+        assertEquals("[S -> A a A @ 0, S -> A a A @ 2]", set.occurrences(A).toString());
+        assertEquals("[S -> A a A @ 1, A -> a @ 0]", set.occurrences(a).toString());
+        assertTrue(set.occurrences(S).isEmpty());
+    }
+
+    @Test
+    void testIndexUpdate() {
+        Nonterminal S = new Nonterminal("S");
+        Terminal a = new Terminal("a");
+        Terminal b = new Terminal("b");
+        Production p1 = new Production(S, new Word(a));
+        Production p2 = new Production(S, new Word(b));
+        ProductionSet set = new ProductionSet(p1);
+
+        assertEquals(Collections.singletonList(p1), set.alternatives(S));
+        set.add(p2);
+        assertEquals(Arrays.asList(p1, p2), set.alternatives(S));
+        assertEquals(1, set.occurrences(b).size());
+
+        Iterator<Production> iterator = set.iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(Collections.singletonList(p2), set.alternatives(S));
+        assertTrue(set.occurrences(a).isEmpty());
+
+        set.freeze();
+        assertThrows(UnsupportedOperationException.class, () -> set.iterator().remove());
+        assertEquals(Collections.singletonList(p2), set.alternatives(S));
+    }
+}
@@ -94,4 +94,22 @@ class ProductionTest {
         assertEquals("B -> A B C", p2.toString());
         assertEquals("A -> A B c", p3.toString());
     }
+
+    @Test
+    void testSharedRightSide() {
+        Nonterminal A = new Nonterminal("A");
+        Nonterminal B = new Nonterminal("B");
+        Terminal a = new Terminal("a");
+
+        Production p0 = new Production(A, new Word(a, B));
+        Production p1 = new Production(B, new Word(a, B));
+        Production p2 = new Production(B, new Word(B, a));
+
+        assertSame(p0.RightSide, p1.RightSide);
+        assertNotSame(p0.RightSide, p2.RightSide);
+
+        Grammar g = GrammarParser.ParseGrammar(new String[]{ "S -> x A | A x", "A -> x A | y" });
+        Word[] rightSides = g.Productions.stream().map(p -> p.RightSide).toArray(Word[]::new);
+        assertSame(rightSides[0], rightSides[2]);
+    }
 }
@@ -0,0 +1,125 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import static generator.GrammarParser.*;
+import static generator.Singletons.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+
+    @Test
+    void testInterning() {
+        SymbolTable table = new SymbolTable();
+        Terminal a = table.terminal("a");
+        Nonterminal na = table.nonterminal("a");
+
+        assertSame(a, table.terminal("a"));
+        assertSame(na, table.nonterminal("a"));
+        assertNotEquals(a, na);
+        assertSame(ε, table.terminal(""));
+        assertSame(Endmarker, table.terminal("$"));
+
+        assertEquals(SymbolTable.εOrdinal, table.ordinal(ε));
+        assertEquals(SymbolTable.EndmarkerOrdinal, table.ordinal(Endmarker));
+        assertEquals(2, table.ordinal(a));
+        assertEquals(3, table.ordinal(na));
+        assertEquals(4, table.size());
+        assertSame(na, table.symbol(3));
+        assertThrows(IllegalArgumentException.class, () -> table.symbol(4));
+    }
+
+    @Test
+    void testForeignSymbols() {
+        SymbolTable table = new SymbolTable();
+        Terminal b = new Terminal("b");
+        assertEquals(-1, table.ordinal(b));
+
+        //Symbols with a new name are adopted by the table
+        assertSame(b, table.intern(b));
+        assertTrue(table.contains(b));
+        assertSame(b, table.terminal("b"));
+
+        //Other instances with the same name are replaced
+        Terminal copy = new Terminal("b");
+        assertSame(b, table.intern(copy));
+        assertFalse(table.contains(copy));
+        assertEquals(table.ordinal(b), table.ordinal(copy));
+
+        //The ordinals belong to the table, not to the symbol
+        SymbolTable other = new SymbolTable();
+        other.terminal("x");
+        assertSame(b, other.intern(b));
+        assertEquals(2, table.ordinal(b));
+        assertEquals(3, other.ordinal(b));
+    }
+
+    @Test
+    void testSharedSymbols() {
+        Grammar g = ParseGrammar(new String[]{ "S -> A b", "A -> a" });
+        Nonterminal s = new Nonterminal("S");
+        Terminal b = new Terminal("b");
+
+        //Mix symbols of the parsed grammar with equal new instances
+        SymbolSet nonterminals = new SymbolSet(g.StartSymbol, new Nonterminal("A"));
+        SymbolSet terminals = new SymbolSet(b, new Terminal("a"));
+        ProductionSet productions = new ProductionSet(
+                new Production(s, new Word(g.Symbols.nonterminal("A"), b)),
+                new Production(new Nonterminal("A"), new Word(new Terminal("a"))));
+
+        Grammar h = new Grammar(nonterminals, terminals, productions, s, g.Symbols);
+        assertSame(h.StartSymbol, g.StartSymbol);
+
+        for (Production p : h.Productions) {
+            assertTrue(h.Symbols.contains(p.LeftSide));
+            assertTrue(h.Nonterminals.stream().anyMatch(n -> n == p.LeftSide));
+            p.RightSide.forEach(sy -> assertTrue(h.Symbols.contains(sy)));
+        }
+
+        h.Terminals.forEach(sy -> assertTrue(h.Symbols.contains(sy)));
+        assertFalse(nonterminals.isFrozen());
+        assertEquals(SetGenerator.Predict(g), SetGenerator.Predict(h));
+    }
+
+    @Test
+    void testIncrementalGrammar() {
+        Grammar g = ParseGrammar(new String[]{ "S -> a S | b" });
+        IncrementalAnalysis analysis = new IncrementalAnalysis(g);
+        analysis.addProduction(new Production(new Nonterminal("S"), new Word(new Terminal("c"))));
+
+        Grammar h = analysis.grammar();
+        assertNotSame(g.Symbols, h.Symbols);
+        assertEquals(-1, g.Symbols.ordinal(new Terminal("c")));
+
+        for (Production p : h.Productions) {
+            assertTrue(h.Symbols.contains(p.LeftSide));
+            p.RightSide.forEach(sy -> assertTrue(h.Symbols.contains(sy)));
+        }
+    }
+
+    @Test
+    void testParsedGrammar() {
+        Grammar g = ParseGrammar(new String[]{
+                "S -> A b | b",
+                "A -> a S | ε"
+        });
+        SymbolTable table = g.Symbols;
+
+        for (Production p : g.Productions) {
+            assertTrue(table.contains(p.LeftSide));
+            assertTrue(g.Nonterminals.stream().anyMatch(n -> n == p.LeftSide));
+
+            for (Symbol sy : p.RightSide) {
+                assertTrue(table.contains(sy));
+                assertSame(table.symbol(table.ordinal(sy)), sy);
+            }
+        }
+
+        assertSame(g.StartSymbol, table.nonterminal("S"));
+        assertEquals(6, table.size());
+    }
+}
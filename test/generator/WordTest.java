@@ -6,7 +6,12 @@
 package generator;
 
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static generator.Singletons.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -179,4 +184,134 @@ class WordTest {
         assertEquals("", w.subWord(4).toString());
         assertThrows(IllegalArgumentException.class, () -> w.subWord(5));
     }
+
+    @Test
+    void testGet() {
+        Terminal A = new Terminal("A");
+        Terminal B = new Terminal("B");
+        Terminal C = new Terminal("C");
+        Word w = new Word(A, B, C).subWord(1);
+
+        assertEquals(B, w.get(0));
+        assertEquals(C, w.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> w.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> w.get(-1));
+    }
+
+    @Test
+    void testSliceEquality() {
+        Terminal A = new Terminal("A");
+        Terminal B = new Terminal("B");
+        Terminal C = new Terminal("C");
+        Terminal D = new Terminal("D");
+        Word w = new Word(A, B, C, D);
+        Word slice = w.subWord(1).leftOf(D);
+
+        assertEquals(new Word(B, C), slice);
+        assertEquals(new Word(B, C), w.rightOf(A).subWord(0).leftOf(D));
+        assertEquals(new Word(B, C).hashCode(), slice.hashCode());
+        assertEquals(new Word(), w.subWord(4));
+        assertEquals(new Word().hashCode(), w.subWord(4).hashCode());
+        assertNotEquals(new Word(B, C, D), slice);
+    }
+
+    @Test
+    void testCompareTo() {
+        Terminal A = new Terminal("A");
+        Terminal B = new Terminal("B");
+        Nonterminal N = new Nonterminal("N");
+
+        assertEquals(0, new Word(A, B).compareTo(new Word(A, B)));
+        assertTrue(new Word(A).compareTo(new Word(A, B)) < 0);
+        assertTrue(new Word(A, B).compareTo(new Word(A)) > 0);
+        assertTrue(new Word(A, B).compareTo(new Word(B)) < 0);
+        assertTrue(new Word().compareTo(new Word(A)) < 0);
+        assertEquals(0, new Word(N, A, B).subWord(1).compareTo(new Word(A, B)));
+        assertEquals(Integer.signum(A.compareTo(N)), Integer.signum(new Word(A).compareTo(new Word(N))));
+    }
+
+    @Test
+    void testIntern() {
+        Terminal A = new Terminal("A");
+        Terminal B = new Terminal("B");
+        Word w = Word.Intern(new Word(A, B));
+
+        assertSame(w, Word.Intern(new Word(A, B)));
+        assertSame(w, Word.Intern(new Word(B, A, B).subWord(1)));
+        assertSame(w, Word.Intern(w));
+        assertNotSame(w, Word.Intern(new Word(B, A)));
+
+        //Equal symbols of other symbol tables are not shared
+        Word other = Word.Intern(new Word(new Terminal("A"), B));
+        assertEquals(w, other);
+        assertNotSame(w, other);
+    }
+
+    @Test
+    void testArrayCopy() {
+        Terminal A = new Terminal("A");
+        Terminal B = new Terminal("B");
+        Symbol[] symbols = { A, B };
+        Word w = new Word(symbols);
+        int hash = w.hashCode();
+
+        //Changes of the array do not change the word
+        symbols[0] = B;
+        assertSame(A, w.get(0));
+        assertEquals(hash, w.hashCode());
+        assertEquals(new Word(A, B), w);
+    }
+
+    @Test
+    void testInternSlice() {
+        Terminal X = new Terminal("X");
+        Terminal Y = new Terminal("Y");
+        Word slice = new Word(X, Y, X, Y).subWord(2);
+
+        //The pool holds a compact copy instead of the slice
+        Word interned = Word.Intern(slice);
+        assertNotSame(slice, interned);
+        assertEquals(slice, interned);
+        assertSame(interned, Word.Intern(new Word(X, Y)));
+        assertSame(interned, Word.Intern(interned));
+    }
+
+    @Test
+    void testConcurrentIntern() throws Exception {
+        Terminal[] symbols = new Terminal[50];
+
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = new Terminal("t" + i);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Word[]>> results = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    Word[] words = new Word[symbols.length];
+
+                    for (int i = 0; i < symbols.length; i++) {
+                        words[i] = Word.Intern(new Word(symbols[i], symbols[(i + 1) % symbols.length]));
+                    }
+
+                    return words;
+                }));
+            }
+
+            Word[] expected = results.get(0).get();
+
+            for (Future<Word[]> result : results) {
+                Word[] words = result.get();
+
+                for (int i = 0; i < words.length; i++) {
+                    assertSame(expected[i], words[i]);
+                }
+            }
+
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
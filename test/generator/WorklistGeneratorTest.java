@@ -0,0 +1,58 @@
+// ---------------------------------------------------------------------
+// MIT License
+// Copyright (c) 2018 Henrik Peters
+// See LICENSE file in the project root for full license information.
+// ---------------------------------------------------------------------
+package generator;
+
+import org.junit.jupiter.api.Test;
+import static generator.GrammarParser.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorklistGeneratorTest {
+
+    /**
+     * Compare the worklist generation with the bitset generation
+     * @param lines Lines of the grammar to compare
+     */
+    void assertSameSets(String... lines) {
+        Grammar g = ParseGrammar(lines);
+        assertEquals(BitSetGenerator.First(g), WorklistGenerator.First(g));
+        assertEquals(BitSetGenerator.Follow(g), WorklistGenerator.Follow(g));
+        assertEquals(BitSetGenerator.Predict(g), WorklistGenerator.Predict(g));
+    }
+
+    @Test
+    void testStartupGrammar() {
+        assertSameSets("S -> ABC", "A -> C | a", "B -> b | ε", "C -> c");
+    }
+
+    @Test
+    void testMiddleNotEmptyGrammar() {
+        assertSameSets("S -> ABCDE", "A -> a | ε", "B -> b | ε", "C -> c", "D -> d | ε", "E -> e | ε");
+    }
+
+    @Test
+    void testCombinedGrammars() {
+        assertSameSets("F -> ( E ) | id", "E -> T | G", "G -> + T G | ε", "T -> F L", "L -> * F L | ε");
+        assertSameSets("S -> E", "E -> E + T | E - T | T", "T -> T * F | T / F | F", "F -> ( E ) | id | num");
+    }
+
+    @Test
+    void testRecursiveGrammar() {
+        assertSameSets("S -> A S B | ε", "A -> a | S", "B -> b B | S");
+    }
+
+    @Test
+    void testDeepChain() {
+        //Every nonterminal depends on the following one
+        String[] lines = new String[101];
+
+        for (int i = 0; i < 100; i++) {
+            lines[i] = "N" + i + "x -> N" + (i + 1) + "x t" + i + " | ε";
+        }
+
+        lines[100] = "N100x -> end";
+        assertSameSets(lines);
+    }
+}